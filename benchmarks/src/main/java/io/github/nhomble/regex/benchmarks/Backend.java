@@ -0,0 +1,36 @@
+package io.github.nhomble.regex.benchmarks;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.parser.BitParallelRegexParser;
+import io.github.nhomble.regex.parser.BytecodeRegexParser;
+import io.github.nhomble.regex.parser.DFARegexParser;
+import io.github.nhomble.regex.parser.LazyDFARegexParser;
+import io.github.nhomble.regex.parser.RegexParser;
+import io.github.nhomble.regex.parser.SpringStateMachineRegexParser;
+
+import java.util.regex.Pattern;
+
+/**
+ * Every matcher backend, plus {@link Pattern} as the baseline
+ */
+public enum Backend {
+    DFA(new DFARegexParser()),
+    LAZY_DFA(new LazyDFARegexParser()),
+    BIT_PARALLEL(new BitParallelRegexParser()),
+    BYTECODE(new BytecodeRegexParser()),
+    STATE_MACHINE(new SpringStateMachineRegexParser()),
+    JDK(regex -> {
+        Pattern pattern = Pattern.compile(regex);
+        return input -> pattern.matcher(input).matches();
+    });
+
+    private final RegexParser parser;
+
+    Backend(RegexParser parser) {
+        this.parser = parser;
+    }
+
+    public RegexMatcher parse(String regex) {
+        return parser.parse(regex);
+    }
+}
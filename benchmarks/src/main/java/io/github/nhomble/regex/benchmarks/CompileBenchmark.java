@@ -0,0 +1,34 @@
+package io.github.nhomble.regex.benchmarks;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Turning a regex string into a ready to use matcher
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CompileBenchmark {
+
+    @Param
+    private Backend backend;
+
+    @Param
+    private Workload workload;
+
+    @Benchmark
+    public RegexMatcher parse() {
+        return backend.parse(workload.getRegex());
+    }
+}
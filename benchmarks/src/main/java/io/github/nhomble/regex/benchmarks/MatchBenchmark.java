@@ -0,0 +1,51 @@
+package io.github.nhomble.regex.benchmarks;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Whole input matching of an already compiled pattern. {@link java.util.regex.Pattern} recurses once per loop iteration,
+ * so the forks get a stack deep enough for the longest inputs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, jvmArgsAppend = "-Xss64m")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MatchBenchmark {
+
+    @Param
+    private Backend backend;
+
+    @Param
+    private Workload workload;
+
+    @Param({"16", "256", "4096"})
+    private int length;
+
+    private RegexMatcher matcher;
+    private String input;
+
+    @Setup
+    public void setup() {
+        matcher = backend.parse(workload.getRegex());
+        input = workload.input(length);
+        if (!matcher.matches(input)) {
+            throw new IllegalStateException(backend + " does not match " + workload);
+        }
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(input);
+    }
+}
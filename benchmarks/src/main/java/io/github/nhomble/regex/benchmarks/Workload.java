@@ -0,0 +1,41 @@
+package io.github.nhomble.regex.benchmarks;
+
+/**
+ * Patterns to measure, each with a unit that repeats into a matching input of any length
+ */
+public enum Workload {
+    // a single character class loop, the best case for every backend
+    STAR("(a|b)*c", "ab", "c"),
+    // nested loops, enough states that the table no longer fits a few cache lines
+    NESTED("((ab)*c|d(a|b)*)*", "abcdab", ""),
+    // alternation of words where every backend has to track several candidates at once
+    WORDS("(cat|car|cart|dog|door)*", "cartcatdoordog", ""),
+    // optional prefix that makes a backtracking matcher try both branches at every step
+    OPTIONAL("(a?b)*(ab)*", "abb", "");
+
+    private final String regex;
+    private final String unit;
+    private final String suffix;
+
+    Workload(String regex, String unit, String suffix) {
+        this.regex = regex;
+        this.unit = unit;
+        this.suffix = suffix;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * @param length
+     * @return matching input of at least the given length
+     */
+    public String input(int length) {
+        StringBuilder input = new StringBuilder(length + unit.length() + suffix.length());
+        while (input.length() < length) {
+            input.append(unit);
+        }
+        return input.append(suffix).toString();
+    }
+}
@@ -0,0 +1,80 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork/join driver behind {@link RegexMatcher#matches(List)}. Every leaf takes one {@link RegexMatcher#worker()} and
+ * runs it over a contiguous slice of the batch, writing into its own slice of a shared {@code boolean[]} which is turned
+ * into the {@link BitSet} once all leaves are done. Batches that aren't {@link RandomAccess} are copied into a list that
+ * is, once, before being split.
+ */
+final class BatchMatcher {
+
+    static final int MIN_LEAF_SIZE = 256;
+    // leaves per thread, so that slices of slow inputs still balance out
+    private static final int LEAVES_PER_THREAD = 4;
+
+    private BatchMatcher() {
+    }
+
+    static BitSet matches(RegexMatcher matcher, List<? extends CharSequence> inputs, ForkJoinPool pool) {
+        Preconditions.checkNotNull(inputs);
+        // leaves look inputs up by index, which would walk a linked list from its head every time
+        List<? extends CharSequence> batch = inputs instanceof RandomAccess ? inputs : new ArrayList<>(inputs);
+        boolean[] results = new boolean[batch.size()];
+        int leafSize = Math.max(MIN_LEAF_SIZE, batch.size() / (pool.getParallelism() * LEAVES_PER_THREAD) + 1);
+        BatchTask task = new BatchTask(matcher, batch, results, 0, batch.size(), leafSize);
+        if (batch.size() <= leafSize) {
+            task.compute();
+        } else {
+            pool.invoke(task);
+        }
+        BitSet matching = new BitSet(results.length);
+        for (int i = 0; i < results.length; i++) {
+            if (results[i]) {
+                matching.set(i);
+            }
+        }
+        return matching;
+    }
+
+    private static class BatchTask extends RecursiveAction {
+        private final RegexMatcher matcher;
+        private final List<? extends CharSequence> inputs;
+        private final boolean[] results;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        BatchTask(RegexMatcher matcher, List<? extends CharSequence> inputs, boolean[] results, int from, int to,
+                  int leafSize) {
+            this.matcher = matcher;
+            this.inputs = inputs;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= leafSize) {
+                RegexMatcher worker = matcher.worker();
+                for (int i = from; i < to; i++) {
+                    results[i] = worker.matches(inputs.get(i));
+                }
+                return;
+            }
+            int mid = from + (to - from) / 2;
+            invokeAll(new BatchTask(matcher, inputs, results, from, mid, leafSize),
+                    new BatchTask(matcher, inputs, results, mid, to, leafSize));
+        }
+    }
+}
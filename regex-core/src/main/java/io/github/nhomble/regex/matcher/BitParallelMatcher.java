@@ -0,0 +1,46 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.BitParallelNFA;
+
+public class BitParallelMatcher implements RegexMatcher {
+
+    private final BitParallelNFA nfa;
+
+    public BitParallelMatcher(BitParallelNFA nfa) {
+        this.nfa = nfa;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return nfa.matches(input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return nfa.matches(input);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return (long) nfa.getPositions() * nfa.getAlphabetSize();
+    }
+
+    /**
+     * @return matcher that keeps one set of state vectors for all the inputs it is given
+     */
+    @Override
+    public RegexMatcher worker() {
+        long[] scratch = nfa.newScratch();
+        return new RegexMatcher() {
+            @Override
+            public boolean matches(String input) {
+                return nfa.matches(input, scratch);
+            }
+
+            @Override
+            public boolean matches(CharSequence input) {
+                return nfa.matches(input, scratch);
+            }
+        };
+    }
+}
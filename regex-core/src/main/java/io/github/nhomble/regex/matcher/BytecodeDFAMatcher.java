@@ -0,0 +1,52 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.DFACodeGenerator;
+
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Runs a {@link DFA} that {@link DFACodeGenerator} compiled into a class of its own
+ */
+public class BytecodeDFAMatcher implements RegexMatcher {
+
+    private final DFA dfa;
+    private final Predicate<CharSequence> generated;
+
+    BytecodeDFAMatcher(DFA dfa, Predicate<CharSequence> generated) {
+        this.dfa = dfa;
+        this.generated = generated;
+    }
+
+    /**
+     * @param dfa
+     * @return generated matcher, or a {@link DFAMatcher} over the table when the DFA is too large to generate
+     */
+    public static RegexMatcher compile(DFA dfa) {
+        Optional<Predicate<CharSequence>> generated = DFACodeGenerator.generate(dfa);
+        return generated.<RegexMatcher>map(g -> new BytecodeDFAMatcher(dfa, g))
+                .orElseGet(() -> new DFAMatcher(dfa));
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        return generated.test(input);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return (long) dfa.getStateCount() * dfa.getAlphabetSize();
+    }
+
+    public DFA getDfa() {
+        return dfa;
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.TaggedNFA;
+
+/**
+ * Matcher that also reports where every capturing group matched, in one pass over the input. Offsets go into an array
+ * the caller owns and can reuse across calls:
+ * <pre>{@code
+ * CaptureMatcher matcher = CaptureMatcher.compile("(a*)b(c|d)");
+ * int[] groups = matcher.newGroups();
+ * if (matcher.match(line, groups)) {
+ *     CharSequence last = line.subSequence(groups[4], groups[5]);
+ * }
+ * }</pre>
+ */
+public class CaptureMatcher implements RegexMatcher {
+
+    private final TaggedNFA nfa;
+
+    public CaptureMatcher(TaggedNFA nfa) {
+        Preconditions.checkNotNull(nfa);
+        this.nfa = nfa;
+    }
+
+    public static CaptureMatcher compile(String regex) {
+        return new CaptureMatcher(TaggedNFA.parse(regex));
+    }
+
+    public int getGroupCount() {
+        return nfa.getGroupCount();
+    }
+
+    /**
+     * @return array big enough for {@link #match(CharSequence, int[])}
+     */
+    public int[] newGroups() {
+        return new int[nfa.getSlotCount()];
+    }
+
+    /**
+     * @return whether the deterministic one-pass matcher is used, rather than simulating the tagged NFA
+     */
+    public boolean isOnePass() {
+        return nfa.getOnePass().isPresent();
+    }
+
+    /**
+     * Match the whole input
+     *
+     * @param input
+     * @param groups at least {@link #newGroups()} long. Afterwards group {@code g} spans {@code [groups[2g], groups[2g + 1])},
+     *               group 0 being the whole input, and both are -1 when the group did not take part in the match. Every
+     *               entry is -1 when there is no match.
+     * @return
+     */
+    public boolean match(CharSequence input, int[] groups) {
+        return nfa.match(input, groups);
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return nfa.match(input, newGroups());
+    }
+
+    @Override
+    public long estimatedSize() {
+        return nfa.getInstructionCount();
+    }
+
+    /**
+     * @return matcher reusing one groups array for all the inputs it is given
+     */
+    @Override
+    public RegexMatcher worker() {
+        int[] groups = newGroups();
+        return new RegexMatcher() {
+            @Override
+            public boolean matches(String input) {
+                return nfa.match(input, groups);
+            }
+
+            @Override
+            public boolean matches(CharSequence input) {
+                return nfa.match(input, groups);
+            }
+        };
+    }
+}
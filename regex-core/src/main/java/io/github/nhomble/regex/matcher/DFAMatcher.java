@@ -0,0 +1,69 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+public class DFAMatcher implements RegexMatcher {
+
+    private final DFA dfa;
+
+    public DFAMatcher(DFA dfa) {
+        this.dfa = dfa;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return (long) dfa.getStateCount() * dfa.getAlphabetSize();
+    }
+
+    public DFA getDfa() {
+        return dfa;
+    }
+
+    /**
+     * @return a session to feed input into a chunk at a time, bytes are decoded as UTF-8
+     */
+    public MatchSession session() {
+        return session(StandardCharsets.UTF_8);
+    }
+
+    public MatchSession session(Charset charset) {
+        Preconditions.checkNotNull(charset);
+        return new MatchSession(dfa, charset);
+    }
+
+    /**
+     * Walk the {@link DFA} table char by char without allocating, bailing out as soon as we fall off the table
+     *
+     * @param input
+     * @return
+     */
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        int currState = dfa.getStart();
+        for (int i = 0; i < input.length() && currState != DFA.OFF_STATE; i++) {
+            currState = dfa.next(currState, input.charAt(i));
+        }
+        return dfa.isFinal(currState);
+    }
+
+    public boolean matches(char[] input, int offset, int length) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkPositionIndexes(offset, offset + length, input.length);
+        int currState = dfa.getStart();
+        int end = offset + length;
+        for (int i = offset; i < end && currState != DFA.OFF_STATE; i++) {
+            currState = dfa.next(currState, input[i]);
+        }
+        return dfa.isFinal(currState);
+    }
+}
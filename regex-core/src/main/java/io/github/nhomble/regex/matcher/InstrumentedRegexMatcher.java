@@ -0,0 +1,55 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+
+/**
+ * Reports every match of the delegate to the installed {@link RegexMetrics}
+ */
+public class InstrumentedRegexMatcher implements RegexMatcher {
+
+    private final RegexMatcher delegate;
+    private final String backend;
+    private final String regex;
+
+    public InstrumentedRegexMatcher(RegexMatcher delegate, String backend, String regex) {
+        Preconditions.checkNotNull(delegate);
+        this.delegate = delegate;
+        this.backend = backend;
+        this.regex = regex;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        boolean matches = delegate.matches(input);
+        metrics.matched(backend, regex, input.length(), start);
+        return matches;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        boolean matches = delegate.matches(input);
+        metrics.matched(backend, regex, input.length(), start);
+        return matches;
+    }
+
+    @Override
+    public long estimatedSize() {
+        return delegate.estimatedSize();
+    }
+
+    @Override
+    public RegexMatcher worker() {
+        RegexMatcher worker = delegate.worker();
+        return worker == delegate ? this : new InstrumentedRegexMatcher(worker, backend, regex);
+    }
+
+    public RegexMatcher getDelegate() {
+        return delegate;
+    }
+}
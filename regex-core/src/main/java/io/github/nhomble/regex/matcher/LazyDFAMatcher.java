@@ -0,0 +1,36 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.LazyDFA;
+
+public class LazyDFAMatcher implements RegexMatcher {
+
+    private final LazyDFA dfa;
+
+    public LazyDFAMatcher(LazyDFA dfa) {
+        this.dfa = dfa;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return dfa.matches(input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        return dfa.matches(input);
+    }
+
+    /**
+     * The cache can grow up to its bound so weigh it as if it had
+     *
+     * @return
+     */
+    @Override
+    public long estimatedSize() {
+        return (long) dfa.getMaxStates() * dfa.getAlphabetSize();
+    }
+
+    public LazyDFA getDfa() {
+        return dfa;
+    }
+}
@@ -0,0 +1,37 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * A regex with no operators matches exactly one string, so matching is a plain comparison
+ */
+public class LiteralMatcher implements RegexMatcher {
+
+    private final String literal;
+
+    public LiteralMatcher(String literal) {
+        Preconditions.checkNotNull(literal);
+        this.literal = literal;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        Preconditions.checkNotNull(input);
+        return literal.equals(input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        return literal.contentEquals(input);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return literal.length();
+    }
+
+    public String getLiteral() {
+        return literal;
+    }
+}
@@ -0,0 +1,47 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.DFAFormat;
+import io.github.nhomble.regex.parser.MappedDFA;
+
+/**
+ * Same walk as {@link DFAMatcher} but over a {@link MappedDFA}, so a precompiled bundle loaded with
+ * {@link DFAFormat#load} is matched against without building anything on the heap
+ */
+public class MappedDFAMatcher implements RegexMatcher {
+
+    private final MappedDFA dfa;
+
+    public MappedDFAMatcher(MappedDFA dfa) {
+        Preconditions.checkNotNull(dfa);
+        this.dfa = dfa;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    /**
+     * Lives off heap, so only the matcher itself counts
+     */
+    @Override
+    public long estimatedSize() {
+        return 1;
+    }
+
+    public MappedDFA getDfa() {
+        return dfa;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        int currState = dfa.getStart();
+        for (int i = 0; i < input.length() && currState != DFA.OFF_STATE; i++) {
+            currState = dfa.next(currState, input.charAt(i));
+        }
+        return dfa.isFinal(currState);
+    }
+}
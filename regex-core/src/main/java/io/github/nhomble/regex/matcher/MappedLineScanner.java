@@ -0,0 +1,253 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.Utf8DFA;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Matches every line of a file against a {@link DFA} without reading the file onto the heap. The file is memory mapped
+ * in chunks that end on a newline and the chunks are scanned in parallel. Lines are matched byte by byte against a
+ * {@link Utf8DFA} compiled from the DFA, with no decoding and no String per line, and the rest of a line is skipped as
+ * soon as the DFA is dead. Matchers with no DFA get each line decoded into a {@link CharBuffer} that is reused from
+ * line to line, still without a String per line.
+ * <p>
+ * A line is everything up to a {@code \n}, without a trailing {@code \r}, and must match as a whole. A line with
+ * malformed UTF-8 never matches. Line numbers start at 1.
+ */
+public class MappedLineScanner {
+
+    public static final long DEFAULT_CHUNK_SIZE = 32 * 1024 * 1024;
+    private static final int BOUNDARY_READ = 4096;
+
+    // only one of these is set
+    private final Utf8DFA dfa;
+    private final RegexMatcher matcher;
+    private final long chunkSize;
+
+    public MappedLineScanner(DFA dfa) {
+        this(dfa, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param dfa
+     * @param chunkSize bytes per mapped chunk, a chunk is stretched to the end of the line it would cut
+     */
+    public MappedLineScanner(DFA dfa, long chunkSize) {
+        Preconditions.checkNotNull(dfa);
+        Preconditions.checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE);
+        this.dfa = Utf8DFA.compile(dfa);
+        this.matcher = null;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * For matchers without a DFA to scan bytes with, such as a lazy DFA. Chunks are scanned in parallel, each with its
+     * own {@link RegexMatcher#worker()}.
+     *
+     * @param matcher
+     */
+    public MappedLineScanner(RegexMatcher matcher) {
+        this(matcher, DEFAULT_CHUNK_SIZE);
+    }
+
+    public MappedLineScanner(RegexMatcher matcher, long chunkSize) {
+        Preconditions.checkNotNull(matcher);
+        Preconditions.checkArgument(chunkSize > 0 && chunkSize <= Integer.MAX_VALUE);
+        this.dfa = null;
+        this.matcher = matcher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param file
+     * @return number of matching lines
+     */
+    public long count(Path file) {
+        long count = 0;
+        for (ChunkResult result : scan(file, false)) {
+            count += result.matches;
+        }
+        return count;
+    }
+
+    /**
+     * @param file
+     * @return numbers of the matching lines in ascending order
+     */
+    public long[] matchingLines(Path file) {
+        List<ChunkResult> results = scan(file, true);
+        long total = 0;
+        for (ChunkResult result : results) {
+            total += result.matches;
+        }
+        Preconditions.checkState(total <= Integer.MAX_VALUE, "too many matching lines, use count");
+        long[] lines = new long[(int) total];
+        int i = 0;
+        long firstLine = 1;
+        for (ChunkResult result : results) {
+            for (int m = 0; m < result.matches; m++) {
+                lines[i++] = firstLine + result.lines[m];
+            }
+            firstLine += result.lineCount;
+        }
+        return lines;
+    }
+
+    private List<ChunkResult> scan(Path file, boolean keepLines) {
+        Preconditions.checkNotNull(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(channel);
+            return IntStream.range(0, bounds.length - 1)
+                    .parallel()
+                    .mapToObj(i -> {
+                        try {
+                            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY, bounds[i], bounds[i + 1] - bounds[i]);
+                            return scanChunk(chunk, keepLines);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return offsets of every chunk and the file size, each chunk but the last ends just past a newline
+     */
+    private long[] chunkBounds(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer window = ByteBuffer.allocate(BOUNDARY_READ);
+        long position = 0;
+        while (size - position > chunkSize) {
+            long nominal = position + chunkSize;
+            long boundary = size;
+            search:
+            for (long offset = nominal; offset < size; offset += BOUNDARY_READ) {
+                window.clear();
+                int read = channel.read(window, offset);
+                for (int i = 0; i < read; i++) {
+                    if (window.get(i) == '\n') {
+                        boundary = offset + i + 1;
+                        break search;
+                    }
+                }
+            }
+            // a single line longer than the chunk size still has to fit in one mapping
+            Preconditions.checkState(boundary - position <= Integer.MAX_VALUE, "line too long to map");
+            if (boundary == size) {
+                break;
+            }
+            bounds.add(boundary);
+            position = boundary;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private ChunkResult scanChunk(ByteBuffer chunk, boolean keepLines) {
+        ChunkResult result = new ChunkResult(keepLines);
+        LineDecoder decoder = dfa == null ? new LineDecoder(chunk, matcher.worker()) : null;
+        int limit = chunk.limit();
+        int line = 0;
+        int start = 0;
+        // only the last chunk can end without a newline, and then its tail is one more line
+        while (start < limit) {
+            int end = start;
+            while (end < limit && chunk.get(end) != '\n') {
+                end++;
+            }
+            int contentEnd = end > start && chunk.get(end - 1) == '\r' ? end - 1 : end;
+            if (decoder == null ? matches(chunk, start, contentEnd) : decoder.matches(start, contentEnd)) {
+                result.add(line);
+            }
+            line++;
+            start = end + 1;
+        }
+        result.lineCount = line;
+        return result;
+    }
+
+    private boolean matches(ByteBuffer chunk, int start, int end) {
+        int state = dfa.getStart();
+        int i = start;
+        while (i < end && !dfa.isDead(state)) {
+            state = dfa.next(state, chunk.get(i++));
+        }
+        return i == end && dfa.isFinal(state);
+    }
+
+    /**
+     * Decodes lines of one chunk into a buffer that only grows, for a matcher to walk as a {@link CharSequence}
+     */
+    private static class LineDecoder {
+        private final ByteBuffer bytes;
+        private final RegexMatcher matcher;
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private CharBuffer chars = CharBuffer.allocate(256);
+
+        LineDecoder(ByteBuffer chunk, RegexMatcher matcher) {
+            this.bytes = chunk.duplicate();
+            this.matcher = matcher;
+        }
+
+        boolean matches(int start, int end) {
+            // UTF-8 never takes fewer bytes than chars
+            if (end - start > chars.capacity()) {
+                chars = CharBuffer.allocate(Math.max(end - start, chars.capacity() * 2));
+            }
+            bytes.limit(end);
+            bytes.position(start);
+            chars.clear();
+            decoder.reset();
+            if (decoder.decode(bytes, chars, true).isError() || decoder.flush(chars).isError()) {
+                return false;
+            }
+            chars.flip();
+            return matcher.matches(chars);
+        }
+    }
+
+    private static class ChunkResult {
+        // chunk relative numbers of the matching lines, only kept when asked for
+        private int[] lines;
+        private int matches;
+        private int lineCount;
+
+        ChunkResult(boolean keepLines) {
+            this.lines = keepLines ? new int[16] : null;
+        }
+
+        void add(int line) {
+            if (lines != null) {
+                if (matches == lines.length) {
+                    lines = Arrays.copyOf(lines, matches * 2);
+                }
+                lines[matches] = line;
+            }
+            matches++;
+        }
+    }
+}
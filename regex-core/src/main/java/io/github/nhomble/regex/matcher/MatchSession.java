@@ -0,0 +1,144 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Incremental run of a {@link DFA} over input that arrives a chunk at a time. Only the current state is kept between
+ * chunks, plus for byte input the decoder and the few bytes of a char split across two chunks.
+ * <p>
+ * Once {@link #isDead()} the input can never match whatever follows, so callers can stop reading early. Sessions are not
+ * thread safe, make one per input with {@link DFAMatcher#session()}.
+ */
+public class MatchSession {
+
+    private static final int SCRATCH_CHARS = 1024;
+    private static final int CARRY_BYTES = 16;
+
+    private final DFA dfa;
+    private final CharsetDecoder decoder;
+    private final CharBuffer scratch;
+    // bytes of a char not yet complete, kept in write mode
+    private final ByteBuffer carry;
+    private int state;
+
+    MatchSession(DFA dfa, Charset charset) {
+        this.dfa = dfa;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.scratch = CharBuffer.allocate(SCRATCH_CHARS);
+        this.carry = ByteBuffer.allocate(CARRY_BYTES);
+        this.state = dfa.getStart();
+    }
+
+    public MatchSession feed(char[] chunk, int offset, int length) {
+        Preconditions.checkNotNull(chunk);
+        Preconditions.checkPositionIndexes(offset, offset + length, chunk.length);
+        int s = state;
+        int end = offset + length;
+        for (int i = offset; i < end && s != DFA.OFF_STATE; i++) {
+            s = dfa.next(s, chunk[i]);
+        }
+        state = s;
+        return this;
+    }
+
+    public MatchSession feed(CharSequence chunk) {
+        Preconditions.checkNotNull(chunk);
+        int s = state;
+        for (int i = 0; i < chunk.length() && s != DFA.OFF_STATE; i++) {
+            s = dfa.next(s, chunk.charAt(i));
+        }
+        state = s;
+        return this;
+    }
+
+    /**
+     * Consumes the remaining chars of the buffer
+     *
+     * @param chunk
+     * @return
+     */
+    public MatchSession feed(CharBuffer chunk) {
+        Preconditions.checkNotNull(chunk);
+        if (chunk.hasArray()) {
+            feed(chunk.array(), chunk.arrayOffset() + chunk.position(), chunk.remaining());
+        } else {
+            int s = state;
+            while (chunk.hasRemaining() && s != DFA.OFF_STATE) {
+                s = dfa.next(s, chunk.get());
+            }
+            state = s;
+        }
+        chunk.position(chunk.limit());
+        return this;
+    }
+
+    /**
+     * Decodes and consumes the remaining bytes of the buffer. The trailing bytes of a char that is cut off by the end of
+     * the chunk are held back until the next one.
+     *
+     * @param chunk
+     * @return
+     */
+    public MatchSession feed(ByteBuffer chunk) {
+        Preconditions.checkNotNull(chunk);
+        if (isDead()) {
+            chunk.position(chunk.limit());
+            return this;
+        }
+        // finish the char split across the previous chunk one byte at a time, it is a few bytes at most
+        while (carry.position() > 0 && chunk.hasRemaining()) {
+            carry.put(chunk.get());
+            carry.flip();
+            decode(carry);
+            carry.compact();
+        }
+        decode(chunk);
+        carry.put(chunk);
+        return this;
+    }
+
+    private void decode(ByteBuffer bytes) {
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, scratch, false);
+            scratch.flip();
+            feed(scratch);
+            scratch.clear();
+        } while (result.isOverflow());
+    }
+
+    /**
+     * @return true if no further input can make this session match
+     */
+    public boolean isDead() {
+        return dfa.isDead(state);
+    }
+
+    /**
+     * @return whether everything fed so far matches. Bytes of an unfinished char count as no match.
+     */
+    public boolean matches() {
+        return carry.position() == 0 && dfa.isFinal(state);
+    }
+
+    public int getState() {
+        return state;
+    }
+
+    public MatchSession reset() {
+        state = dfa.getStart();
+        decoder.reset();
+        carry.clear();
+        return this;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * Half open range {@code [start, end)} of the input that a pattern matched
+ */
+public class MatchSpan {
+
+    private final int start;
+    private final int end;
+
+    public MatchSpan(int start, int end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getEnd() {
+        return end;
+    }
+
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof MatchSpan)) {
+            return false;
+        }
+        MatchSpan that = (MatchSpan) other;
+        return start == that.start && end == that.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start + end;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(MatchSpan.class)
+                .add("start", start)
+                .add("end", end)
+                .toString();
+    }
+}
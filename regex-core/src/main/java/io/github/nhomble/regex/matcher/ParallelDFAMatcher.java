@@ -0,0 +1,161 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Matches one large input on several threads. The input is cut into segments and every segment is run from every DFA
+ * state at once, giving a map from the state the segment starts in to the state it ends in. Those maps are composed
+ * pairwise up a fork/join tree, so the root holds the map for the whole input and its value at the start state decides
+ * the match.
+ * <p>
+ * Running from every state costs {@code states} times the sequential work in the worst case, but in most DFAs the runs
+ * quickly fall into the same few states. Runs are merged once they meet, so the extra work is usually a small constant.
+ * Inputs shorter than twice the minimum segment length are matched sequentially.
+ */
+public class ParallelDFAMatcher implements RegexMatcher {
+
+    public static final int DEFAULT_MIN_SEGMENT_LENGTH = 64 * 1024;
+    // how many chars between merging runs that have reached the same state
+    private static final int MERGE_INTERVAL = 32;
+
+    private final DFA dfa;
+    private final ForkJoinPool pool;
+    private final int minSegmentLength;
+
+    public ParallelDFAMatcher(DFA dfa) {
+        this(dfa, ForkJoinPool.commonPool(), DEFAULT_MIN_SEGMENT_LENGTH);
+    }
+
+    public ParallelDFAMatcher(DFA dfa, ForkJoinPool pool, int minSegmentLength) {
+        Preconditions.checkNotNull(dfa);
+        Preconditions.checkNotNull(pool);
+        Preconditions.checkArgument(minSegmentLength > 0);
+        this.dfa = dfa;
+        this.pool = pool;
+        this.minSegmentLength = minSegmentLength;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return (long) dfa.getStateCount() * dfa.getAlphabetSize();
+    }
+
+    public DFA getDfa() {
+        return dfa;
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        if (input.length() < 2 * minSegmentLength) {
+            return dfa.isFinal(run(input, 0, input.length(), dfa.getStart()));
+        }
+        // about four segments per thread so that uneven segments still balance out
+        int segments = Math.max(2, Math.min(input.length() / minSegmentLength, pool.getParallelism() * 4));
+        int segmentLength = (input.length() + segments - 1) / segments;
+        int[] transitions = pool.invoke(new SegmentTask(input, 0, input.length(), segmentLength));
+        int start = dfa.getStart();
+        return start != DFA.OFF_STATE && dfa.isFinal(transitions[start]);
+    }
+
+    private int run(CharSequence input, int from, int to, int state) {
+        for (int i = from; i < to && state != DFA.OFF_STATE; i++) {
+            state = dfa.next(state, input.charAt(i));
+        }
+        return state;
+    }
+
+    /**
+     * @return end state of the segment for every start state, {@link DFA#OFF_STATE} included
+     */
+    private int[] transitions(CharSequence input, int from, int to) {
+        int n = dfa.getStateCount();
+        // runs still distinct, and which run every start state is in
+        int[] runs = new int[n];
+        int[] runOf = new int[n];
+        for (int state = 0; state < n; state++) {
+            runs[state] = state;
+            runOf[state] = state;
+        }
+        int distinct = n;
+        int[] merged = new int[n + 1];
+        int[] mergedStamp = new int[n + 1];
+        int[] remap = new int[n];
+        int stamp = 0;
+
+        for (int i = from; i < to; i++) {
+            char c = input.charAt(i);
+            for (int r = 0; r < distinct; r++) {
+                runs[r] = dfa.next(runs[r], c);
+            }
+            if ((i - from) % MERGE_INTERVAL == MERGE_INTERVAL - 1 || i == to - 1) {
+                stamp++;
+                int kept = 0;
+                for (int r = 0; r < distinct; r++) {
+                    // shift by one so OFF_STATE gets a slot too
+                    int key = runs[r] + 1;
+                    if (mergedStamp[key] != stamp) {
+                        mergedStamp[key] = stamp;
+                        merged[key] = kept;
+                        runs[kept++] = runs[r];
+                    }
+                    remap[r] = merged[key];
+                }
+                for (int state = 0; state < n; state++) {
+                    runOf[state] = remap[runOf[state]];
+                }
+                distinct = kept;
+                if (distinct == 1 && runs[0] == DFA.OFF_STATE) {
+                    break;
+                }
+            }
+        }
+
+        int[] transitions = new int[n];
+        for (int state = 0; state < n; state++) {
+            transitions[state] = runs[runOf[state]];
+        }
+        return transitions;
+    }
+
+    private class SegmentTask extends RecursiveTask<int[]> {
+        private final CharSequence input;
+        private final int from;
+        private final int to;
+        private final int segmentLength;
+
+        SegmentTask(CharSequence input, int from, int to, int segmentLength) {
+            this.input = input;
+            this.from = from;
+            this.to = to;
+            this.segmentLength = segmentLength;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= segmentLength) {
+                return transitions(input, from, to);
+            }
+            int mid = from + (to - from) / 2;
+            SegmentTask left = new SegmentTask(input, from, mid, segmentLength);
+            SegmentTask right = new SegmentTask(input, mid, to, segmentLength);
+            left.fork();
+            int[] after = right.compute();
+            int[] before = left.join();
+            // compose in place, first the left half then the right
+            for (int state = 0; state < before.length; state++) {
+                before[state] = before[state] == DFA.OFF_STATE ? DFA.OFF_STATE : after[before[state]];
+            }
+            return before;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.github.nhomble.regex.matcher;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+public interface RegexMatcher {
+
+    boolean matches(String input);
+
+    /**
+     * Backends that can walk a {@link CharSequence} directly override this to skip the copy into a String
+     *
+     * @param input
+     * @return
+     */
+    default boolean matches(CharSequence input) {
+        return matches(input.toString());
+    }
+
+    /**
+     * Rough retained size of the compiled pattern, in automaton states times alphabet size, used to weigh cached
+     * matchers against each other
+     *
+     * @return
+     */
+    default long estimatedSize() {
+        return 1;
+    }
+
+    /**
+     * Match a whole batch, large batches are split across the common {@link ForkJoinPool}
+     *
+     * @param inputs
+     * @return indexes of the inputs that match
+     */
+    default BitSet matches(List<? extends CharSequence> inputs) {
+        return BatchMatcher.matches(this, inputs, ForkJoinPool.commonPool());
+    }
+
+    default BitSet matches(CharSequence[] inputs) {
+        return matches(Arrays.asList(inputs));
+    }
+
+    /**
+     * A matcher for one batch worker thread to call over and over, holding whatever scratch state it wants to reuse
+     * between inputs. Matchers that are safe to share across threads and need no scratch return themselves.
+     *
+     * @return
+     */
+    default RegexMatcher worker() {
+        return this;
+    }
+}
@@ -0,0 +1,266 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.ParseTree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Unanchored search for a pattern anywhere in the input, reporting leftmost-longest spans. Three DFAs are compiled from
+ * the same {@link ParseTree}:
+ * <ul>
+ * <li>a forward DFA with an implicit leading {@code .*}, whose first final state is the earliest end of any match. It
+ * answers {@link #contains(CharSequence)} and rejects inputs without a match before anything else runs.</li>
+ * <li>a DFA of the reversed pattern, also with a leading {@code .*}, run from the end of the input backwards. It is final
+ * exactly at the offsets where some match starts.</li>
+ * <li>the plain anchored DFA, run forward from a start for as long as it can still match to find the longest end.</li>
+ * </ul>
+ * Every scan is linear in the input. {@link #findAll} runs the anchored DFA from all the starts in a single pass rather
+ * than once per match, so a pattern like {@code a|a*b} over a long run of {@code a} doesn't revisit the same chars.
+ */
+public class RegexSearcher {
+
+    private final String pattern;
+    private final DFA forward;
+    private final DFA unanchored;
+    private final DFA reverse;
+
+    RegexSearcher(String pattern, DFA forward, DFA unanchored, DFA reverse) {
+        this.pattern = pattern;
+        this.forward = forward;
+        this.unanchored = unanchored;
+        this.reverse = reverse;
+    }
+
+    public static RegexSearcher compile(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        ParseTree tree = ParseTree.parse(regex);
+        return new RegexSearcher(regex, DFA.parse(tree), DFA.parseUnanchored(tree),
+                DFA.parseUnanchored(tree.reverse()));
+    }
+
+    /**
+     * @param input
+     * @return whether the pattern matches some substring of the input
+     */
+    public boolean contains(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        return earliestEnd(input, 0) >= 0;
+    }
+
+    public Optional<MatchSpan> find(CharSequence input) {
+        return find(input, 0);
+    }
+
+    /**
+     * @param input
+     * @param from  offset to start searching at, matches never start before it
+     * @return the match that starts first and, of those, the longest
+     */
+    public Optional<MatchSpan> find(CharSequence input, int from) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkPositionIndex(from, input.length());
+        if (earliestEnd(input, from) < 0) {
+            return Optional.empty();
+        }
+        int start = starts(input, from).nextSetBit(from);
+        return Optional.of(new MatchSpan(start, longestEnd(input, start)));
+    }
+
+    /**
+     * Successive non overlapping leftmost-longest matches. As with {@link java.util.regex.Matcher#find()} an empty match
+     * is allowed right after a non empty one, and the search moves one char ahead after an empty match.
+     *
+     * @param input
+     * @return
+     */
+    public List<MatchSpan> findAll(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        List<MatchSpan> spans = new ArrayList<>();
+        if (earliestEnd(input, 0) < 0) {
+            return spans;
+        }
+        BitSet starts = starts(input, 0);
+        int[] ends = longestEnds(input, starts);
+        int from = 0;
+        for (int start = starts.nextSetBit(from); start >= 0; start = starts.nextSetBit(from)) {
+            int end = ends[start];
+            spans.add(new MatchSpan(start, end));
+            from = end == start ? end + 1 : end;
+        }
+        return spans;
+    }
+
+    private static int restart(DFA dfa, int state) {
+        return state == DFA.OFF_STATE ? dfa.getStart() : state;
+    }
+
+    /**
+     * @return offset just past the first match to end, or -1
+     */
+    private int earliestEnd(CharSequence input, int from) {
+        int state = unanchored.getStart();
+        if (unanchored.isFinal(state)) {
+            return from;
+        }
+        for (int i = from; i < input.length(); i++) {
+            state = restart(unanchored, unanchored.next(state, input.charAt(i)));
+            if (unanchored.isFinal(state)) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return every offset at or after from where some match starts
+     */
+    private BitSet starts(CharSequence input, int from) {
+        BitSet starts = new BitSet(input.length() + 1);
+        int state = reverse.getStart();
+        if (reverse.isFinal(state)) {
+            starts.set(input.length());
+        }
+        for (int i = input.length() - 1; i >= from; i--) {
+            state = restart(reverse, reverse.next(state, input.charAt(i)));
+            if (reverse.isFinal(state)) {
+                starts.set(i);
+            }
+        }
+        return starts;
+    }
+
+    /**
+     * @return offset just past the longest match starting at start, which must be a start found by {@link #starts}
+     */
+    private int longestEnd(CharSequence input, int start) {
+        int state = forward.getStart();
+        int end = forward.isFinal(state) ? start : -1;
+        for (int i = start; i < input.length() && !forward.isDead(state); i++) {
+            state = forward.next(state, input.charAt(i));
+            if (forward.isFinal(state)) {
+                end = i + 1;
+            }
+        }
+        return end;
+    }
+
+    /**
+     * The longest end of every start in one forward pass. Runs from different starts that reach the same state read the
+     * same chars from then on, so they are merged into a new group and only one run per state is ever live. A final
+     * state reached later counts for every start in the group, and each start's end is the last one along its chain of
+     * groups.
+     *
+     * @return offset just past the longest match starting at each offset in starts, other offsets are unspecified
+     */
+    private int[] longestEnds(CharSequence input, BitSet starts) {
+        int n = input.length();
+        int stateCount = forward.getStateCount();
+        // a group is only ever merged into one created after it, so parents have higher ids
+        int[] parent = new int[16];
+        int[] lastEnd = new int[16];
+        int groups = 0;
+        int[] startGroup = new int[n + 1];
+        int[] groupOf = new int[stateCount];
+        int[] nextGroupOf = new int[stateCount];
+        Arrays.fill(groupOf, -1);
+        Arrays.fill(nextGroupOf, -1);
+        int[] live = new int[stateCount];
+        int[] nextLive = new int[stateCount];
+        int liveCount = 0;
+        // first group created at the current offset, those can take more runs without a new merge
+        int fresh = 0;
+        for (int i = starts.nextSetBit(0); i >= 0 && i <= n; i++) {
+            if (starts.get(i)) {
+                int state = forward.getStart();
+                int group = groupOf[state];
+                if (group < fresh) {
+                    if (groups == parent.length) {
+                        parent = Arrays.copyOf(parent, groups * 2);
+                        lastEnd = Arrays.copyOf(lastEnd, groups * 2);
+                    }
+                    parent[groups] = -1;
+                    lastEnd[groups] = forward.isFinal(state) ? i : -1;
+                    if (group >= 0) {
+                        parent[group] = groups;
+                    } else {
+                        live[liveCount++] = state;
+                    }
+                    group = groups++;
+                    groupOf[state] = group;
+                }
+                startGroup[i] = group;
+            }
+            if (i == n) {
+                break;
+            }
+            if (liveCount == 0) {
+                i = starts.nextSetBit(i + 1) - 1;
+                fresh = groups;
+                continue;
+            }
+
+            char c = input.charAt(i);
+            fresh = groups;
+            int nextCount = 0;
+            for (int l = 0; l < liveCount; l++) {
+                int state = live[l];
+                int group = groupOf[state];
+                groupOf[state] = -1;
+                int to = forward.next(state, c);
+                if (forward.isDead(to)) {
+                    continue;
+                }
+                int there = nextGroupOf[to];
+                if (there < 0) {
+                    nextGroupOf[to] = group;
+                    nextLive[nextCount++] = to;
+                } else if (there >= fresh) {
+                    parent[group] = there;
+                } else {
+                    if (groups == parent.length) {
+                        parent = Arrays.copyOf(parent, groups * 2);
+                        lastEnd = Arrays.copyOf(lastEnd, groups * 2);
+                    }
+                    parent[groups] = -1;
+                    lastEnd[groups] = -1;
+                    parent[there] = groups;
+                    parent[group] = groups;
+                    nextGroupOf[to] = groups++;
+                }
+            }
+            for (int l = 0; l < nextCount; l++) {
+                if (forward.isFinal(nextLive[l])) {
+                    lastEnd[nextGroupOf[nextLive[l]]] = i + 1;
+                }
+            }
+            int[] swap = groupOf;
+            groupOf = nextGroupOf;
+            nextGroupOf = swap;
+            swap = live;
+            live = nextLive;
+            nextLive = swap;
+            liveCount = nextCount;
+        }
+
+        // ends only grow along a chain, so a group's end is its own or that of the group it was merged into
+        for (int group = groups - 1; group >= 0; group--) {
+            if (parent[group] >= 0) {
+                lastEnd[group] = Math.max(lastEnd[group], lastEnd[parent[group]]);
+            }
+        }
+        for (int start = starts.nextSetBit(0); start >= 0 && start <= n; start = starts.nextSetBit(start + 1)) {
+            startGroup[start] = lastEnd[startGroup[start]];
+        }
+        return startGroup;
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+}
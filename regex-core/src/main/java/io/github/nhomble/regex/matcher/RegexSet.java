@@ -0,0 +1,90 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import io.github.nhomble.regex.parser.DFA;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Match one input against many patterns in a single pass. All patterns are compiled into one {@link DFA} whose states
+ * know which patterns they accept, so the cost is the length of the input no matter how many patterns there are.
+ * Pattern ids are the positions of the patterns in the list given to {@link #compile(List)}.
+ */
+public class RegexSet {
+
+    private final List<String> patterns;
+    private final DFA dfa;
+
+    RegexSet(List<String> patterns, DFA dfa) {
+        this.patterns = patterns;
+        this.dfa = dfa;
+    }
+
+    public static RegexSet compile(String... regexes) {
+        return compile(Arrays.asList(regexes));
+    }
+
+    public static RegexSet compile(List<String> regexes) {
+        List<String> patterns = ImmutableList.copyOf(regexes);
+        return new RegexSet(patterns, DFA.parseAll(patterns));
+    }
+
+    /**
+     * @param input
+     * @return ids of every pattern that matches the whole input
+     */
+    public BitSet matches(CharSequence input) {
+        BitSet into = new BitSet(patterns.size());
+        matches(input, into);
+        return into;
+    }
+
+    /**
+     * Same as {@link #matches(CharSequence)} but fills a caller owned {@link BitSet}, which is cleared first
+     *
+     * @param input
+     * @param into
+     */
+    public void matches(CharSequence input, BitSet into) {
+        into.clear();
+        for (int pattern : dfa.getMatchingPatterns(run(input))) {
+            into.set(pattern);
+        }
+    }
+
+    /**
+     * @param input
+     * @return ids, in ascending order, of every pattern that matches the whole input
+     */
+    public int[] matchingPatterns(CharSequence input) {
+        return dfa.getMatchingPatterns(run(input)).clone();
+    }
+
+    public boolean matchesAny(CharSequence input) {
+        return dfa.isFinal(run(input));
+    }
+
+    private int run(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        int currState = dfa.getStart();
+        for (int i = 0; i < input.length() && currState != DFA.OFF_STATE; i++) {
+            currState = dfa.next(currState, input.charAt(i));
+        }
+        return currState;
+    }
+
+    public String getPattern(int id) {
+        return patterns.get(id);
+    }
+
+    public int size() {
+        return patterns.size();
+    }
+
+    public DFA getDfa() {
+        return dfa;
+    }
+}
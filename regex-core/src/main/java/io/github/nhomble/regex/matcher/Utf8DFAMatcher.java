@@ -0,0 +1,70 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.Utf8DFA;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Matches UTF-8 encoded input as it is, walking a {@link Utf8DFA} a byte at a time with no charset decoding and no
+ * String in between. Chars are still accepted and stepped over as their UTF-8 bytes, a surrogate pair as the four bytes
+ * of its code point.
+ */
+public class Utf8DFAMatcher implements RegexMatcher {
+
+    private final Utf8DFA dfa;
+
+    public Utf8DFAMatcher(Utf8DFA dfa) {
+        Preconditions.checkNotNull(dfa);
+        this.dfa = dfa;
+    }
+
+    @Override
+    public boolean matches(String input) {
+        return matches((CharSequence) input);
+    }
+
+    @Override
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        int currState = dfa.getStart();
+        for (int i = 0; i < input.length() && currState != DFA.OFF_STATE; i++) {
+            char c = input.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < input.length()
+                    && Character.isLowSurrogate(input.charAt(i + 1))) {
+                currState = dfa.nextCodePoint(currState, Character.toCodePoint(c, input.charAt(++i)));
+            } else {
+                currState = dfa.next(currState, c);
+            }
+        }
+        return dfa.isFinal(currState);
+    }
+
+    public boolean matches(byte[] input) {
+        Preconditions.checkNotNull(input);
+        return dfa.matches(input, 0, input.length);
+    }
+
+    public boolean matches(byte[] input, int offset, int length) {
+        return dfa.matches(input, offset, length);
+    }
+
+    /**
+     * @param input the bytes between its position and limit are matched, neither is changed
+     * @return
+     */
+    public boolean matches(ByteBuffer input) {
+        Preconditions.checkNotNull(input);
+        return dfa.matches(input, input.position(), input.limit());
+    }
+
+    @Override
+    public long estimatedSize() {
+        return (long) dfa.getStateCount() * dfa.getClassCount() + Utf8DFA.WIDTH;
+    }
+
+    public Utf8DFA getDfa() {
+        return dfa;
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.nhomble.regex.metrics;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+
+/**
+ * Reports to several {@link RegexMetrics} at once, say a meter registry and flight recorder events
+ */
+public class CompositeRegexMetrics implements RegexMetrics {
+
+    private final List<RegexMetrics> delegates;
+
+    public CompositeRegexMetrics(RegexMetrics... delegates) {
+        Preconditions.checkArgument(delegates.length > 0);
+        this.delegates = ImmutableList.copyOf(delegates);
+    }
+
+    @Override
+    public void phase(CompilePhase phase, long start) {
+        for (RegexMetrics delegate : delegates) {
+            delegate.phase(phase, start);
+        }
+    }
+
+    @Override
+    public void nfaBuilt(int states) {
+        for (RegexMetrics delegate : delegates) {
+            delegate.nfaBuilt(states);
+        }
+    }
+
+    @Override
+    public void dfaBuilt(int states, int alphabetSize) {
+        for (RegexMetrics delegate : delegates) {
+            delegate.dfaBuilt(states, alphabetSize);
+        }
+    }
+
+    @Override
+    public void compiled(String backend, String regex, long start) {
+        for (RegexMetrics delegate : delegates) {
+            delegate.compiled(backend, regex, start);
+        }
+    }
+
+    @Override
+    public void matched(String backend, String regex, int length, long start) {
+        for (RegexMetrics delegate : delegates) {
+            delegate.matched(backend, regex, length, start);
+        }
+    }
+}
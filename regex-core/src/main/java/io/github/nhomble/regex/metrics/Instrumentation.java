@@ -0,0 +1,28 @@
+package io.github.nhomble.regex.metrics;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Holds the {@link RegexMetrics} every parser and instrumented matcher reports to, {@link RegexMetrics#NOOP} until one
+ * is installed
+ */
+public final class Instrumentation {
+
+    private static volatile RegexMetrics metrics = RegexMetrics.NOOP;
+
+    private Instrumentation() {
+    }
+
+    public static RegexMetrics get() {
+        return metrics;
+    }
+
+    public static void install(RegexMetrics metrics) {
+        Preconditions.checkNotNull(metrics);
+        Instrumentation.metrics = metrics;
+    }
+
+    public static void reset() {
+        metrics = RegexMetrics.NOOP;
+    }
+}
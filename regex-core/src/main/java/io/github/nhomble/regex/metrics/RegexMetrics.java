@@ -0,0 +1,53 @@
+package io.github.nhomble.regex.metrics;
+
+/**
+ * Callbacks from the compile and match paths, installed process wide with {@link Instrumentation#install}. Every
+ * callback is handed the value {@link #now()} returned when the work started, so the {@link #NOOP} default skips even
+ * reading the clock and an uninstrumented caller pays for little more than a volatile read.
+ */
+public interface RegexMetrics {
+
+    RegexMetrics NOOP = new RegexMetrics() {
+        @Override
+        public long now() {
+            return 0;
+        }
+    };
+
+    enum CompilePhase {
+        PARSE_TREE, NFA, DFA, MINIMIZE
+    }
+
+    /**
+     * @return start time to pass back to the callbacks, in nanos
+     */
+    default long now() {
+        return System.nanoTime();
+    }
+
+    default void phase(CompilePhase phase, long start) {
+    }
+
+    default void nfaBuilt(int states) {
+    }
+
+    default void dfaBuilt(int states, int alphabetSize) {
+    }
+
+    /**
+     * @param backend
+     * @param regex
+     * @param start   when the whole compile started
+     */
+    default void compiled(String backend, String regex, long start) {
+    }
+
+    /**
+     * @param backend
+     * @param regex
+     * @param length of the input
+     * @param start  when the match started
+     */
+    default void matched(String backend, String regex, int length, long start) {
+    }
+}
@@ -0,0 +1,265 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Columns of a transition table as sorted, disjoint char intervals. Built from the classes on the edges of an automaton
+ * every interval is an atom: a maximal run of chars that every class either wholly contains or wholly misses, so one
+ * column stands for all of them and the table grows with the number of distinct ranges rather than chars. Chars in no
+ * interval have no column at all.
+ * <p>
+ * Atoms that are read by exactly the same edges can then be {@link #merge merged} into one equivalence class, a column
+ * holding several intervals, so that {@code [^,]} is a single column and {@code [a-z]x} is two rather than three.
+ */
+final class Alphabet {
+
+    private static final int ASCII = 128;
+
+    private final char[] lo;
+    private final char[] hi;
+    private final int[] column;
+    private final int width;
+    // column of every ASCII char, or -1, so the common case skips the search
+    private final int[] asciiColumn;
+
+    Alphabet(char[] lo, char[] hi, int[] column, int width) {
+        Preconditions.checkArgument(lo.length == hi.length && lo.length == column.length);
+        this.lo = lo;
+        this.hi = hi;
+        this.column = column;
+        this.width = width;
+        this.asciiColumn = new int[ASCII];
+        for (char c = 0; c < ASCII; c++) {
+            int interval = intervalOf(c);
+            asciiColumn[c] = interval < 0 ? -1 : column[interval];
+        }
+    }
+
+    static Alphabet of(Collection<CharClass> classes) {
+        int size = 0;
+        for (CharClass charClass : classes) {
+            size += 2 * charClass.getIntervalCount();
+        }
+        char[] bounds = new char[size];
+        int k = 0;
+        for (CharClass charClass : classes) {
+            for (int i = 0; i < charClass.getIntervalCount(); i++) {
+                bounds[k++] = charClass.lo(i);
+                bounds[k++] = charClass.hi(i);
+            }
+        }
+        return of(bounds, k);
+    }
+
+    /**
+     * Split the chars into atoms: every lo and every {@code hi + 1} starts a new one
+     *
+     * @param intervals lo and hi of every interval, one after the other, in any order and possibly overlapping
+     * @param length    number of bounds used
+     * @return
+     */
+    static Alphabet of(char[] intervals, int length) {
+        // a boundary can be MAX_VALUE + 1, the low bit tells where an interval starts from where one ends
+        long[] events = new long[length];
+        for (int k = 0; k < length; k += 2) {
+            events[k] = (long) intervals[k] << 1 | 1;
+            events[k + 1] = (long) (intervals[k + 1] + 1) << 1;
+        }
+        Arrays.sort(events);
+
+        char[] lo = new char[length];
+        char[] hi = new char[length];
+        int size = 0;
+        int covered = 0;
+        for (int i = 0; i < events.length; ) {
+            int at = (int) (events[i] >>> 1);
+            while (i < events.length && (int) (events[i] >>> 1) == at) {
+                covered += (events[i] & 1) == 1 ? 1 : -1;
+                i++;
+            }
+            if (covered > 0 && i < events.length) {
+                lo[size] = (char) at;
+                hi[size] = (char) ((int) (events[i] >>> 1) - 1);
+                size++;
+            }
+        }
+        int[] column = new int[size];
+        for (int i = 0; i < size; i++) {
+            column[i] = i;
+        }
+        return new Alphabet(Arrays.copyOf(lo, size), Arrays.copyOf(hi, size), column, size);
+    }
+
+    /**
+     * @return one column per char from min on, the layout of a table indexed by char offset
+     */
+    static Alphabet singles(char min, int width) {
+        char[] chars = new char[width];
+        int[] column = new int[width];
+        for (int i = 0; i < width; i++) {
+            chars[i] = (char) (min + i);
+            column[i] = i;
+        }
+        return new Alphabet(chars, chars.clone(), column, width);
+    }
+
+    /**
+     * Coarsest partition of the columns that keeps every set of runs whole: two columns share a class when every set
+     * holds both or neither of them
+     *
+     * @param width number of columns
+     * @param first first column of every run
+     * @param last  last column of every run
+     * @param set   set every run belongs to, the runs of a set need not be adjacent
+     * @param runs  number of runs used
+     * @return class of every column, classes numbered in the order of their first column
+     */
+    static int[] classes(int width, int[] first, int[] last, int[] set, int runs) {
+        long[] bySet = new long[runs];
+        for (int r = 0; r < runs; r++) {
+            bySet[r] = (long) set[r] << 32 | r;
+        }
+        Arrays.sort(bySet);
+
+        int[] classOf = new int[width];
+        int classes = width == 0 ? 0 : 1;
+        int[] split = new int[2 * width];
+        for (int k = 0; k < runs; ) {
+            // every class the set touches moves its columns in the set to a new class
+            Arrays.fill(split, 0, classes, -1);
+            int next = classes;
+            int current = (int) (bySet[k] >>> 32);
+            for (; k < runs && (int) (bySet[k] >>> 32) == current; k++) {
+                int r = (int) bySet[k];
+                for (int column = first[r]; column <= last[r]; column++) {
+                    int c = classOf[column];
+                    if (c < classes) {
+                        if (split[c] < 0) {
+                            split[c] = next++;
+                        }
+                        classOf[column] = split[c];
+                    }
+                }
+            }
+            classes = renumber(classOf, next, split);
+        }
+        return classOf;
+    }
+
+    /**
+     * Number the classes in use from 0 in the order they first appear
+     *
+     * @return number of classes
+     */
+    private static int renumber(int[] classOf, int ids, int[] scratch) {
+        Arrays.fill(scratch, 0, ids, -1);
+        int classes = 0;
+        for (int column = 0; column < classOf.length; column++) {
+            int c = classOf[column];
+            if (scratch[c] < 0) {
+                scratch[c] = classes++;
+            }
+            classOf[column] = scratch[c];
+        }
+        return classes;
+    }
+
+    /**
+     * @param classOf new column of every column, numbered from 0 without gaps
+     * @return the same chars with the columns merged into their classes, adjacent intervals of a class joined
+     */
+    Alphabet merge(int[] classOf) {
+        Preconditions.checkArgument(classOf.length == width);
+        char[] mergedLo = new char[lo.length];
+        char[] mergedHi = new char[lo.length];
+        int[] mergedColumn = new int[lo.length];
+        int classes = 0;
+        int size = 0;
+        for (int i = 0; i < lo.length; i++) {
+            int c = classOf[column[i]];
+            classes = Math.max(classes, c + 1);
+            if (size > 0 && mergedColumn[size - 1] == c && mergedHi[size - 1] + 1 == lo[i]) {
+                mergedHi[size - 1] = hi[i];
+            } else {
+                mergedLo[size] = lo[i];
+                mergedHi[size] = hi[i];
+                mergedColumn[size] = c;
+                size++;
+            }
+        }
+        return new Alphabet(Arrays.copyOf(mergedLo, size), Arrays.copyOf(mergedHi, size),
+                Arrays.copyOf(mergedColumn, size), classes);
+    }
+
+    /**
+     * @return number of columns
+     */
+    int size() {
+        return width;
+    }
+
+    int getIntervalCount() {
+        return lo.length;
+    }
+
+    char lo(int interval) {
+        return lo[interval];
+    }
+
+    char hi(int interval) {
+        return hi[interval];
+    }
+
+    int column(int interval) {
+        return column[interval];
+    }
+
+    /**
+     * @param c
+     * @return column of the char or -1 if it is in no interval
+     */
+    int columnOf(char c) {
+        if (c < ASCII) {
+            return asciiColumn[c];
+        }
+        int interval = intervalOf(c);
+        return interval < 0 ? -1 : column[interval];
+    }
+
+    /**
+     * @param c
+     * @return index of the interval holding the char, or -1
+     */
+    int intervalOf(char c) {
+        int low = 0;
+        int high = lo.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (c < lo[mid]) {
+                high = mid - 1;
+            } else if (c > hi[mid]) {
+                low = mid + 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param column
+     * @return the chars of the column, e.g. {@code a} or {@code a-z}
+     */
+    String label(int column) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lo.length; i++) {
+            if (this.column[i] == column) {
+                builder.append(builder.length() == 0 ? "" : ",").append(CharClass.label(lo[i], hi[i]));
+            }
+        }
+        return builder.toString();
+    }
+}
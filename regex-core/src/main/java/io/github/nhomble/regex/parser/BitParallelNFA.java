@@ -0,0 +1,270 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Glushkov (position) automaton simulated bit-parallel, straight from the {@link ParseTree} with no subset construction.
+ * <p>
+ * Every char or class of the pattern is a position, plus position 0 for the start. The set of active positions is a bit vector
+ * and one step is {@code active = follow(active) & mask(c)}. With fewer than 64 positions the whole state is a single
+ * {@code long} and {@code follow} is looked up a byte of the state at a time; bigger patterns spread the state over a
+ * {@code long[]} and or together the follow sets of the active positions.
+ */
+public class BitParallelNFA {
+
+    public static final int WORD_POSITIONS = Long.SIZE;
+
+    private final int positions;
+    private final int words;
+    private final Alphabet alphabet;
+    // mask of positions whose class holds the chars of each column, words per column
+    private final long[] masks;
+    // follow sets of every position, words per position
+    private final long[] follow;
+    // follow sets of every byte of a single word state, 256 entries per byte of the state
+    private final long[] byteFollow;
+    private final long[] finals;
+
+    private BitParallelNFA(List<CharClass> labels, BitSet[] followSets, BitSet finalSet) {
+        this.positions = labels.size() + 1;
+        this.words = (positions + WORD_POSITIONS - 1) / WORD_POSITIONS;
+
+        this.alphabet = Alphabet.of(labels);
+        this.masks = new long[alphabet.size() * words];
+        for (int p = 1; p < positions; p++) {
+            CharClass label = labels.get(p - 1);
+            for (int i = 0; i < label.getIntervalCount(); i++) {
+                int last = alphabet.intervalOf(label.hi(i));
+                for (int column = alphabet.intervalOf(label.lo(i)); column <= last; column++) {
+                    set(masks, column * words, p);
+                }
+            }
+        }
+
+        this.follow = new long[positions * words];
+        for (int p = 0; p < positions; p++) {
+            for (int q = followSets[p].nextSetBit(0); q >= 0; q = followSets[p].nextSetBit(q + 1)) {
+                set(follow, p * words, q);
+            }
+        }
+        this.finals = new long[words];
+        for (int p = finalSet.nextSetBit(0); p >= 0; p = finalSet.nextSetBit(p + 1)) {
+            set(finals, 0, p);
+        }
+
+        if (words == 1) {
+            int bytes = (positions + Byte.SIZE - 1) / Byte.SIZE;
+            byteFollow = new long[bytes * 256];
+            for (int b = 0; b < bytes; b++) {
+                for (int value = 1; value < 256; value++) {
+                    int low = Integer.numberOfTrailingZeros(value);
+                    int p = b * Byte.SIZE + low;
+                    long rest = byteFollow[b * 256 + (value & (value - 1))];
+                    byteFollow[b * 256 + value] = rest | (p < positions ? follow[p] : 0);
+                }
+            }
+        } else {
+            byteFollow = null;
+        }
+    }
+
+    private static void set(long[] bits, int offset, int bit) {
+        bits[offset + bit / WORD_POSITIONS] |= 1L << (bit % WORD_POSITIONS);
+    }
+
+    /**
+     * @return number of positions including the start position
+     */
+    public int getPositions() {
+        return positions;
+    }
+
+    public int getAlphabetSize() {
+        return masks.length / words;
+    }
+
+    public int getWords() {
+        return words;
+    }
+
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        return words == 1 ? matchesSingleWord(input) : matchesMultiWord(input, newScratch());
+    }
+
+    /**
+     * Same as {@link #matches(CharSequence)} but reuses the caller's scratch for the state vectors of a multi word
+     * pattern instead of allocating them per call
+     *
+     * @param input
+     * @param scratch from {@link #newScratch()}, only used by one thread at a time
+     * @return
+     */
+    public boolean matches(CharSequence input, long[] scratch) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkArgument(scratch.length >= 2 * words);
+        return words == 1 ? matchesSingleWord(input) : matchesMultiWord(input, scratch);
+    }
+
+    public long[] newScratch() {
+        return new long[2 * words];
+    }
+
+    private int column(char c) {
+        return alphabet.columnOf(c);
+    }
+
+    private boolean matchesSingleWord(CharSequence input) {
+        long active = 1L;
+        for (int i = 0; i < input.length(); i++) {
+            int column = column(input.charAt(i));
+            if (column < 0) {
+                return false;
+            }
+            long next = 0;
+            long remaining = active;
+            for (int b = 0; remaining != 0; b += 256, remaining >>>= Byte.SIZE) {
+                next |= byteFollow[b + (int) (remaining & 0xFF)];
+            }
+            active = next & masks[column];
+            if (active == 0) {
+                return false;
+            }
+        }
+        return (active & finals[0]) != 0;
+    }
+
+    private boolean matchesMultiWord(CharSequence input, long[] scratch) {
+        // the active and next state vectors live side by side in scratch and swap places every step
+        Arrays.fill(scratch, 0, 2 * words, 0);
+        int active = 0;
+        int next = words;
+        scratch[active] = 1L;
+        for (int i = 0; i < input.length(); i++) {
+            int column = column(input.charAt(i));
+            if (column < 0) {
+                return false;
+            }
+            Arrays.fill(scratch, next, next + words, 0);
+            for (int w = 0; w < words; w++) {
+                for (long bits = scratch[active + w]; bits != 0; bits &= bits - 1) {
+                    int p = w * WORD_POSITIONS + Long.numberOfTrailingZeros(bits);
+                    for (int x = 0; x < words; x++) {
+                        scratch[next + x] |= follow[p * words + x];
+                    }
+                }
+            }
+            boolean alive = false;
+            for (int w = 0; w < words; w++) {
+                scratch[next + w] &= masks[column * words + w];
+                alive |= scratch[next + w] != 0;
+            }
+            if (!alive) {
+                return false;
+            }
+            int tmp = active;
+            active = next;
+            next = tmp;
+        }
+        for (int w = 0; w < words; w++) {
+            if ((scratch[active + w] & finals[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static BitParallelNFA parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return parseTree(ParseTree.parse(regex));
+    }
+
+    /**
+     * Glushkov construction: nullable, first and last sets per node and the follow set of every position, all in one
+     * post order pass over the tree
+     *
+     * @param tree
+     * @return
+     */
+    public static BitParallelNFA parseTree(ParseTree tree) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        // class of every position but the start
+        List<CharClass> labels = new ArrayList<>();
+        List<BitSet> follow = new ArrayList<>();
+        follow.add(new BitSet());
+
+        Node root = tree.fold((component, left, right) -> {
+            switch (component.getType()) {
+                case CHAR:
+                case CLASS: {
+                    int p = follow.size();
+                    labels.add(component.chars());
+                    follow.add(new BitSet());
+                    BitSet single = new BitSet();
+                    single.set(p);
+                    return new Node(false, single, (BitSet) single.clone());
+                }
+                case CONCAT: {
+                    for (int p = left.last.nextSetBit(0); p >= 0; p = left.last.nextSetBit(p + 1)) {
+                        follow.get(p).or(right.first);
+                    }
+                    BitSet first = (BitSet) left.first.clone();
+                    if (left.nullable) {
+                        first.or(right.first);
+                    }
+                    BitSet last = (BitSet) right.last.clone();
+                    if (right.nullable) {
+                        last.or(left.last);
+                    }
+                    return new Node(left.nullable && right.nullable, first, last);
+                }
+                case OR: {
+                    BitSet first = (BitSet) left.first.clone();
+                    first.or(right.first);
+                    BitSet last = (BitSet) left.last.clone();
+                    last.or(right.last);
+                    return new Node(left.nullable || right.nullable, first, last);
+                }
+                case STAR:
+                    for (int p = left.last.nextSetBit(0); p >= 0; p = left.last.nextSetBit(p + 1)) {
+                        follow.get(p).or(left.first);
+                    }
+                    return new Node(true, left.first, left.last);
+                case QUESTION:
+                    return new Node(true, left.first, left.last);
+                default:
+                    throw new IllegalStateException();
+            }
+        });
+
+        follow.get(0).or(root.first);
+        BitSet finals = (BitSet) root.last.clone();
+        if (root.nullable) {
+            finals.set(0);
+        }
+        BitParallelNFA nfa = new BitParallelNFA(labels, follow.toArray(new BitSet[0]), finals);
+        metrics.phase(RegexMetrics.CompilePhase.NFA, start);
+        metrics.nfaBuilt(nfa.getPositions());
+        return nfa;
+    }
+
+    private static class Node {
+        private final boolean nullable;
+        private final BitSet first;
+        private final BitSet last;
+
+        Node(boolean nullable, BitSet first, BitSet last) {
+            this.nullable = nullable;
+            this.first = first;
+            this.last = last;
+        }
+    }
+}
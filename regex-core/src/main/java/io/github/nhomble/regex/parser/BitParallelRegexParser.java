@@ -0,0 +1,13 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.matcher.BitParallelMatcher;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+
+public class BitParallelRegexParser implements RegexParser {
+    @Override
+    public RegexMatcher parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return new BitParallelMatcher(BitParallelNFA.parse(regex));
+    }
+}
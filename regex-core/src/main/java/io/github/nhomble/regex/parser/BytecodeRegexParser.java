@@ -0,0 +1,13 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.matcher.BytecodeDFAMatcher;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+
+public class BytecodeRegexParser implements RegexParser {
+    @Override
+    public RegexMatcher parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return BytecodeDFAMatcher.compile(DFA.parse(regex));
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+
+/**
+ * Shares compiled matchers across callers and threads, keyed by the regex string. Entries are weighed by
+ * {@link RegexMatcher#estimatedSize()} and the least recently used ones are evicted once the total weight goes over the
+ * limit. With soft values the garbage collector may also reclaim entries under memory pressure.
+ * <p>
+ * The matchers handed out are shared, so only wrap a delegate whose matchers are safe to use from several threads.
+ */
+public class CachingRegexParser implements RegexParser {
+
+    public static final long DEFAULT_MAXIMUM_WEIGHT = 16 * 1024 * 1024;
+
+    private final LoadingCache<String, RegexMatcher> cache;
+
+    public CachingRegexParser(RegexParser delegate) {
+        this(delegate, DEFAULT_MAXIMUM_WEIGHT, false);
+    }
+
+    public CachingRegexParser(RegexParser delegate, long maximumWeight, boolean softValues) {
+        Preconditions.checkNotNull(delegate);
+        CacheBuilder<String, RegexMatcher> builder = CacheBuilder.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((String regex, RegexMatcher matcher) -> (int) Math.min(Integer.MAX_VALUE, Math.max(1, matcher.estimatedSize())))
+                .recordStats();
+        if (softValues) {
+            builder.softValues();
+        }
+        this.cache = builder.build(CacheLoader.from(delegate::parse));
+    }
+
+    @Override
+    public RegexMatcher parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        try {
+            return cache.getUnchecked(regex);
+        } catch (UncheckedExecutionException e) {
+            // surface the parse failure itself rather than the cache's wrapper
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return hit, miss, load and eviction counts since this parser was created
+     */
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Arrays;
+
+/**
+ * Set of chars kept as sorted, disjoint and non adjacent inclusive intervals, so {@code [a-z]} and {@code .} are a
+ * handful of bounds however many chars they hold
+ */
+final class CharClass {
+
+    static final CharClass ANY_BUT_NEWLINE = new CharClass(new char[]{0, '\n' - 1, '\n' + 1, Character.MAX_VALUE});
+
+    // lo and hi of every interval, one after the other
+    private final char[] bounds;
+
+    private CharClass(char[] bounds) {
+        this.bounds = bounds;
+    }
+
+    static CharClass of(char c) {
+        return new CharClass(new char[]{c, c});
+    }
+
+    /**
+     * @param bounds lo and hi of every interval, in any order and possibly overlapping
+     * @return
+     */
+    static CharClass of(char[] bounds) {
+        Preconditions.checkArgument(bounds.length % 2 == 0);
+        int n = bounds.length / 2;
+        long[] intervals = new long[n];
+        for (int i = 0; i < n; i++) {
+            Preconditions.checkArgument(bounds[2 * i] <= bounds[2 * i + 1]);
+            intervals[i] = (long) bounds[2 * i] << 16 | bounds[2 * i + 1];
+        }
+        Arrays.sort(intervals);
+        char[] merged = new char[bounds.length];
+        int size = 0;
+        for (long interval : intervals) {
+            char lo = (char) (interval >>> 16);
+            char hi = (char) interval;
+            if (size > 0 && lo <= merged[size - 1] + 1) {
+                merged[size - 1] = (char) Math.max(merged[size - 1], hi);
+            } else {
+                merged[size++] = lo;
+                merged[size++] = hi;
+            }
+        }
+        return new CharClass(Arrays.copyOf(merged, size));
+    }
+
+    /**
+     * @return every char not in this class
+     */
+    CharClass negate() {
+        char[] complement = new char[bounds.length + 2];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < bounds.length; i += 2) {
+            if (bounds[i] > next) {
+                complement[size++] = (char) next;
+                complement[size++] = (char) (bounds[i] - 1);
+            }
+            next = bounds[i + 1] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            complement[size++] = (char) next;
+            complement[size++] = Character.MAX_VALUE;
+        }
+        return new CharClass(Arrays.copyOf(complement, size));
+    }
+
+    int getIntervalCount() {
+        return bounds.length / 2;
+    }
+
+    char lo(int interval) {
+        return bounds[2 * interval];
+    }
+
+    char hi(int interval) {
+        return bounds[2 * interval + 1];
+    }
+
+    boolean contains(char c) {
+        int lo = 0;
+        int hi = bounds.length / 2 - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (c < bounds[2 * mid]) {
+                hi = mid - 1;
+            } else if (c > bounds[2 * mid + 1]) {
+                lo = mid + 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof CharClass && Arrays.equals(bounds, ((CharClass) other).bounds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(bounds);
+    }
+
+    @Override
+    public String toString() {
+        if (equals(ANY_BUT_NEWLINE)) {
+            return ".";
+        }
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < bounds.length; i += 2) {
+            builder.append(label(bounds[i], bounds[i + 1]));
+        }
+        return builder.append(']').toString();
+    }
+
+    /**
+     * @return the char itself, or {@code lo-hi} for a longer interval
+     */
+    static String label(char lo, char hi) {
+        return lo == hi ? String.valueOf(lo) : lo + "-" + hi;
+    }
+}
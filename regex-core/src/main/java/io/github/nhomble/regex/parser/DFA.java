@@ -0,0 +1,499 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+
+import java.util.*;
+
+/**
+ * Subset construction from {@link NFA}, followed by {@link DFAMinimizer} unless asked otherwise. Transitions are kept in a
+ * flat table of {@code states * width} entries where the column is that of the {@link Alphabet} interval holding the
+ * input char, so a step is a lookup of the column, straight from an array for ASCII, and a single array load.
+ * <p>
+ * Columns are equivalence classes of chars rather than chars: construction starts from the NFA's classes, chars read
+ * by the same edges, and after minimization any columns that no state tells apart are merged as well. The table
+ * is {@code states * classes}, which for most patterns is a handful of columns however many chars they mention.
+ */
+public class DFA {
+
+    public static final int OFF_STATE = -1;
+    private static final int[] NO_PATTERNS = new int[0];
+    private static final int[] FIRST_PATTERN = new int[]{0};
+    private static final int[] NO_STATES = new int[0];
+
+    private final int[] table;
+    private final Alphabet alphabet;
+    private final int width;
+    private final int start;
+    private final boolean[] finalStates;
+    // ids of the patterns each state accepts, only kept for a DFA built from several patterns
+    private final int[][] matchingPatterns;
+    private final int constructedStateCount;
+    // states from which some final state can still be reached
+    private final boolean[] live;
+
+    DFA(int[] table, Alphabet alphabet, int start, boolean[] finalStates, int[][] matchingPatterns,
+        int constructedStateCount) {
+        this.table = table;
+        this.alphabet = alphabet;
+        this.width = alphabet.size();
+        this.start = start;
+        this.finalStates = finalStates;
+        this.matchingPatterns = matchingPatterns;
+        this.constructedStateCount = constructedStateCount;
+        this.live = live(table, width, finalStates);
+    }
+
+    /**
+     * Walk the transitions backwards from every final state
+     */
+    private static boolean[] live(int[] table, int width, boolean[] finalStates) {
+        int n = finalStates.length;
+        int[] predStart = new int[n + 1];
+        for (int to : table) {
+            if (to != OFF_STATE) {
+                predStart[to + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            predStart[i + 1] += predStart[i];
+        }
+        int[] preds = new int[predStart[n]];
+        int[] cursor = Arrays.copyOf(predStart, n);
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != OFF_STATE) {
+                preds[cursor[table[i]]++] = i / width;
+            }
+        }
+
+        boolean[] live = new boolean[n];
+        int[] stack = new int[n];
+        int top = 0;
+        for (int state = 0; state < n; state++) {
+            if (finalStates[state]) {
+                live[state] = true;
+                stack[top++] = state;
+            }
+        }
+        while (top > 0) {
+            int curr = stack[--top];
+            for (int i = predStart[curr]; i < predStart[curr + 1]; i++) {
+                if (!live[preds[i]]) {
+                    live[preds[i]] = true;
+                    stack[top++] = preds[i];
+                }
+            }
+        }
+        return live;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getStateCount() {
+        return finalStates.length;
+    }
+
+    /**
+     * @return number of columns in the transition table
+     */
+    public int getAlphabetSize() {
+        return width;
+    }
+
+    /**
+     * @return number of states subset construction produced, before any minimization
+     */
+    public int getConstructedStateCount() {
+        return constructedStateCount;
+    }
+
+    int[] getTable() {
+        return table;
+    }
+
+    Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    int getWidth() {
+        return width;
+    }
+
+    boolean[] getFinalStates() {
+        return finalStates;
+    }
+
+    public void accept(DFAVisitor visitor) {
+        for (int from = 0; from < getStateCount(); from++) {
+            for (int column = 0; column < width; column++) {
+                int to = table[from * width + column];
+                if (to != OFF_STATE) {
+                    visitor.visit(from, alphabet.label(column), to);
+                }
+            }
+        }
+    }
+
+    public int next(int state, char input) {
+        int column = alphabet.columnOf(input);
+        if (state == OFF_STATE || column < 0) {
+            return OFF_STATE;
+        }
+        return table[state * width + column];
+    }
+
+    /**
+     * @param input
+     * @return the signal {@link #accept(DFAVisitor)} labels the transitions reading this char with, or null if none do
+     */
+    public String signalOf(char input) {
+        int column = alphabet.columnOf(input);
+        return column < 0 ? null : alphabet.label(column);
+    }
+
+    public int next(int state, String input) {
+        if (input.length() != 1) {
+            return OFF_STATE;
+        }
+        return next(state, input.charAt(0));
+    }
+
+    public boolean isFinal(int state) {
+        return state != OFF_STATE && finalStates[state];
+    }
+
+    /**
+     * @param state
+     * @return true if no further input can lead from this state to a match
+     */
+    public boolean isDead(int state) {
+        return state == OFF_STATE || !live[state];
+    }
+
+    /**
+     * @param state
+     * @return ids, in ascending order, of the patterns accepted in this state. Shared, so don't modify it.
+     */
+    public int[] getMatchingPatterns(int state) {
+        if (state == OFF_STATE) {
+            return NO_PATTERNS;
+        }
+        if (matchingPatterns == null) {
+            return finalStates[state] ? FIRST_PATTERN : NO_PATTERNS;
+        }
+        return matchingPatterns[state];
+    }
+
+    int[][] getMatchingPatterns() {
+        return matchingPatterns;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        Set<Integer> end = new TreeSet<>();
+        for (int state = 0; state < getStateCount(); state++) {
+            if (finalStates[state]) {
+                end.add(state);
+            }
+        }
+        builder.append("start=").append(start).append("\n");
+        builder.append("end={").append(end).append("}\n");
+        accept((from, signal, to) -> {
+            builder.append("from=").append(from).append(" signal=").append(signal).append(" to=").append(to).append("\n");
+        });
+        return builder.toString();
+    }
+
+    public interface DFAVisitor {
+        void visit(int from, String signal, int to);
+    }
+
+    /**
+     * Follow every edge reading the given column out of the given NFA states and take the union of the memoized epsilon
+     * closures of the targets
+     *
+     * @param nfa
+     * @param states
+     * @param column of the NFA's alphabet
+     * @param into scratch set, cleared first
+     * @return
+     */
+    static DFAState step(NFA nfa, int[] states, int column, SparseSet into) {
+        return step(nfa, states, column, into, NO_STATES);
+    }
+
+    /**
+     * @param restart NFA states added to every step, the initial closure for an unanchored search
+     */
+    private static DFAState step(NFA nfa, int[] states, int column, SparseSet into, int[] restart) {
+        into.clear();
+        into.addAll(restart);
+        for (int state : states) {
+            for (int edge = nfa.edgeStart(state); edge < nfa.edgeEnd(state); edge++) {
+                if (nfa.edgeReads(edge, column)) {
+                    into.addAll(nfa.epsClosure(nfa.edgeTarget(edge)));
+                }
+            }
+        }
+        return new DFAState(into.toSortedArray());
+    }
+
+    /**
+     * For clarity, we wrap a set of NFA states into a single DFA state object. The sorted state array is the canonical
+     * key so that equal sets intern to the same DFA state.
+     */
+    static class DFAState {
+        private final int[] nfaStates;
+        private final int hash;
+
+        DFAState(int[] nfaStates) {
+            this.nfaStates = nfaStates;
+            this.hash = Arrays.hashCode(nfaStates);
+        }
+
+        public int[] getNfaStates() {
+            return nfaStates;
+        }
+
+        public boolean contains(int state) {
+            return Arrays.binarySearch(nfaStates, state) >= 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof DFAState)) {
+                return false;
+            }
+            DFAState that = (DFAState) other;
+            return hash == that.hash && Arrays.equals(nfaStates, that.nfaStates);
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(DFAState.class)
+                    .add("states", Arrays.toString(nfaStates))
+                    .toString();
+        }
+    }
+
+    public static DFA parse(String regex) {
+        return parse(regex, true);
+    }
+
+    public static DFA parse(String regex, boolean minimize) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return parse(NFA.parseTree(regex), minimize);
+    }
+
+    /**
+     * @param regex
+     * @param maxStates
+     * @return minimized DFA, or empty if subset construction finds more states than that, see {@link #parse(NFA, int)}
+     */
+    public static Optional<DFA> parse(String regex, int maxStates) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return parse(NFA.parseTree(regex), maxStates);
+    }
+
+    public static DFA parse(ParseTree tree) {
+        Preconditions.checkNotNull(tree);
+        return parse(NFA.parseTree(tree), true);
+    }
+
+    /**
+     * Compile the pattern as if it had a leading {@code .*}: every state also holds the initial NFA states, so a match
+     * may start at any position and the first final state reached marks the earliest end of any match. Chars of the
+     * alphabet that lead nowhere go back to the start state, while chars the pattern never mentions have no column, so
+     * {@link #next} maps them to {@link #OFF_STATE} and callers treat that the same way.
+     *
+     * @param tree
+     * @return
+     */
+    public static DFA parseUnanchored(ParseTree tree) {
+        Preconditions.checkNotNull(tree);
+        return parse(NFA.parseTree(tree), true, true);
+    }
+
+    /**
+     * Compile several patterns into one DFA over the {@link NFA#union(List)} of their automata. Each state knows which
+     * of the patterns it accepts, see {@link #getMatchingPatterns(int)}, so a single scan tells every pattern that
+     * matched.
+     *
+     * @param regexes
+     * @return
+     */
+    public static DFA parseAll(List<String> regexes) {
+        Preconditions.checkArgument(regexes != null && !regexes.isEmpty());
+        List<ParseTree> trees = new ArrayList<>();
+        for (String regex : regexes) {
+            Preconditions.checkArgument(regex != null && regex.length() > 0);
+            trees.add(ParseTree.parse(regex));
+        }
+        return parse(NFA.union(trees), true);
+    }
+
+    static DFA parse(NFA nfa, boolean minimize) {
+        return parse(nfa, minimize, false);
+    }
+
+    /**
+     * Subset construction that gives up once it has found more than the given number of states, so that patterns whose
+     * DFA would blow up cost no more than that to try
+     *
+     * @param nfa
+     * @param maxStates
+     * @return minimized DFA, or empty if there are more states than that before minimization
+     */
+    static Optional<DFA> parse(NFA nfa, int maxStates) {
+        Preconditions.checkArgument(maxStates > 0);
+        return Optional.ofNullable(parse(nfa, true, false, maxStates));
+    }
+
+    static DFA parse(NFA nfa, boolean minimize, boolean unanchored) {
+        return parse(nfa, minimize, unanchored, Integer.MAX_VALUE);
+    }
+
+    private static DFA parse(NFA nfa, boolean minimize, boolean unanchored, int maxStates) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+
+        Alphabet alphabet = nfa.getAlphabet();
+        int width = alphabet.size();
+
+        List<int[]> rows = new ArrayList<>();
+        List<DFAState> states = new ArrayList<>();
+        Map<DFAState, Integer> dfaMap = new HashMap<>();
+        SparseSet scratch = new SparseSet(nfa.getStateCount());
+
+        int[] initialClosure = nfa.epsClosure(nfa.getInitialState());
+        int[] restart = unanchored ? initialClosure : NO_STATES;
+        DFAState initial = new DFAState(initialClosure);
+        int dfaStart = states.size();
+        dfaMap.put(initial, dfaStart);
+        states.add(initial);
+        rows.add(emptyRow(width, unanchored ? dfaStart : OFF_STATE));
+
+        // states are numbered as they are discovered so the list doubles as the work queue
+        for (int from = 0; from < states.size(); from++) {
+            int[] curr = states.get(from).getNfaStates();
+            for (int column = 0; column < width; column++) {
+                DFAState next = step(nfa, curr, column, scratch, restart);
+                Integer to = dfaMap.get(next);
+                if (to == null) {
+                    if (states.size() == maxStates) {
+                        return null;
+                    }
+                    to = states.size();
+                    dfaMap.put(next, to);
+                    states.add(next);
+                    rows.add(emptyRow(width, unanchored ? dfaStart : OFF_STATE));
+                }
+                rows.get(from)[column] = to;
+            }
+        }
+
+        int[] patternOf = new int[nfa.getStateCount()];
+        Arrays.fill(patternOf, -1);
+        for (int pattern = 0; pattern < nfa.getPatternCount(); pattern++) {
+            patternOf[nfa.getFinalStates()[pattern]] = pattern;
+        }
+        int[] table = new int[rows.size() * width];
+        boolean[] finals = new boolean[rows.size()];
+        int[][] matching = nfa.getPatternCount() > 1 ? new int[rows.size()][] : null;
+        for (int state = 0; state < rows.size(); state++) {
+            System.arraycopy(rows.get(state), 0, table, state * width, width);
+            scratch.clear();
+            for (int nfaState : states.get(state).getNfaStates()) {
+                if (patternOf[nfaState] >= 0) {
+                    scratch.add(patternOf[nfaState]);
+                }
+            }
+            finals[state] = !scratch.isEmpty();
+            if (matching != null) {
+                matching[state] = scratch.toSortedArray();
+            }
+        }
+        DFA dfa = new DFA(table, alphabet, dfaStart, finals, matching, rows.size());
+        metrics.phase(RegexMetrics.CompilePhase.DFA, start);
+        if (minimize) {
+            start = metrics.now();
+            dfa = mergeColumns(DFAMinimizer.minimize(dfa));
+            metrics.phase(RegexMetrics.CompilePhase.MINIMIZE, start);
+        }
+        metrics.dfaBuilt(dfa.getStateCount(), dfa.getAlphabetSize());
+        return dfa;
+    }
+
+    /**
+     * Merge the columns whose transitions are the same in every state. Chars on different NFA edges, like the a and b
+     * of {@code (a|b)c}, often turn out to lead to the same states once equivalent states are merged.
+     *
+     * @param dfa
+     * @return the same automaton over the classes of its columns, or the DFA itself if no two columns are alike
+     */
+    static DFA mergeColumns(DFA dfa) {
+        int n = dfa.getStateCount();
+        int width = dfa.width;
+        int[] table = dfa.table;
+        int[] hashes = new int[width];
+        for (int i = 0; i < table.length; i++) {
+            hashes[i % width] = 31 * hashes[i % width] + table[i];
+        }
+
+        int[] classOf = new int[width];
+        int[] representative = new int[width];
+        int classes = 0;
+        Map<Integer, List<Integer>> byHash = new HashMap<>();
+        for (int column = 0; column < width; column++) {
+            List<Integer> candidates = byHash.computeIfAbsent(hashes[column], hash -> new ArrayList<>());
+            classOf[column] = -1;
+            for (int c : candidates) {
+                if (sameColumn(table, width, n, column, representative[c])) {
+                    classOf[column] = c;
+                    break;
+                }
+            }
+            if (classOf[column] < 0) {
+                representative[classes] = column;
+                candidates.add(classes);
+                classOf[column] = classes++;
+            }
+        }
+        if (classes == width) {
+            return dfa;
+        }
+        int[] merged = new int[n * classes];
+        for (int state = 0; state < n; state++) {
+            for (int c = 0; c < classes; c++) {
+                merged[state * classes + c] = table[state * width + representative[c]];
+            }
+        }
+        return new DFA(merged, dfa.alphabet.merge(classOf), dfa.start, dfa.finalStates, dfa.matchingPatterns,
+                dfa.constructedStateCount);
+    }
+
+    private static boolean sameColumn(int[] table, int width, int n, int column, int other) {
+        for (int state = 0; state < n; state++) {
+            if (table[state * width + column] != table[state * width + other]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int[] emptyRow(int width, int fill) {
+        int[] row = new int[width];
+        Arrays.fill(row, fill);
+        return row;
+    }
+}
@@ -0,0 +1,357 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+/**
+ * Turns a {@link DFA} into a class of its own whose {@code test} method is the automaton written out as code: a loop over
+ * the input with a {@code switch} on the state and, inside each case, a {@code switch} on the char, or a binary search
+ * over its ranges when a state reads classes like {@code [^a]} too wide to list. The transitions are constants in the
+ * code rather than loads from a table, so the JIT can lay out and predict them like hand written code.
+ * <p>
+ * HotSpot refuses to JIT compile methods over {@link #MAX_METHOD_BYTES} of bytecode, and an interpreted matcher would be
+ * far slower than the table, so DFAs whose code would be larger than that are not generated at all. Every class gets a
+ * class loader of its own so it can be unloaded once the matcher is no longer reachable.
+ */
+public final class DFACodeGenerator {
+
+    public static final int MAX_METHOD_BYTES = 8000;
+    private static final String PACKAGE = "io/github/nhomble/regex/generated/";
+    private static final String CHAR_SEQUENCE = "java/lang/CharSequence";
+    private static final AtomicInteger CLASSES = new AtomicInteger();
+
+    // locals of the generated test(Object) method
+    private static final int INPUT = 2;
+    private static final int LENGTH = 3;
+    private static final int INDEX = 4;
+    private static final int STATE = 5;
+    private static final int CHAR = 6;
+
+    private DFACodeGenerator() {
+    }
+
+    /**
+     * @param dfa
+     * @return whole input matcher for the DFA, or empty if the code would be too large to be JIT compiled
+     */
+    public static Optional<Predicate<CharSequence>> generate(DFA dfa) {
+        Preconditions.checkNotNull(dfa);
+        if (estimateMethodBytes(dfa) > MAX_METHOD_BYTES) {
+            return Optional.empty();
+        }
+        String name = PACKAGE + "DFA" + CLASSES.incrementAndGet();
+        byte[] bytes = generateClass(dfa, name);
+        Class<?> type = new GeneratedClassLoader(DFACodeGenerator.class.getClassLoader())
+                .define(name.replace('/', '.'), bytes);
+        try {
+            @SuppressWarnings("unchecked")
+            Predicate<CharSequence> matcher = (Predicate<CharSequence>) type.getConstructor().newInstance();
+            return Optional.of(matcher);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("could not instantiate generated " + name, e);
+        }
+    }
+
+    /**
+     * Upper bound on the size of the generated method, following the layout in {@link #generateClass}
+     */
+    static int estimateMethodBytes(DFA dfa) {
+        int n = dfa.getStateCount();
+        // set up, loop condition, reading the char and the final switch on the state
+        int bytes = 32 + 16 + 4 * n + 16 + 8 * n;
+        for (int state = 0; state < n; state++) {
+            int[] ranges = ranges(dfa, state);
+            // the char dispatch with up to three bytes of padding, then the block that moves to this state
+            bytes += 2 + 16 + (ranges.length == 0 ? 0 : Math.min(switchBytes(ranges), searchBytes(ranges))) + 8;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return lo, hi and target of every run of chars leading to the same state, sorted
+     */
+    private static int[] ranges(DFA dfa, int state) {
+        int[] table = dfa.getTable();
+        Alphabet alphabet = dfa.getAlphabet();
+        int width = alphabet.size();
+        int[] ranges = new int[3 * alphabet.getIntervalCount()];
+        int size = 0;
+        for (int i = 0; i < alphabet.getIntervalCount(); i++) {
+            int to = table[state * width + alphabet.column(i)];
+            if (to == DFA.OFF_STATE) {
+                continue;
+            }
+            if (size > 0 && ranges[size - 2] + 1 == alphabet.lo(i) && ranges[size - 1] == to) {
+                ranges[size - 2] = alphabet.hi(i);
+            } else {
+                ranges[size++] = alphabet.lo(i);
+                ranges[size++] = alphabet.hi(i);
+                ranges[size++] = to;
+            }
+        }
+        return Arrays.copyOf(ranges, size);
+    }
+
+    /**
+     * @return size of whichever is smaller of a jump table over the chars and a sorted char list
+     */
+    private static int switchBytes(int[] ranges) {
+        long keys = 0;
+        for (int r = 0; r < ranges.length; r += 3) {
+            keys += ranges[r + 1] - ranges[r] + 1;
+        }
+        long span = ranges[ranges.length - 2] - ranges[0] + 1;
+        return (int) Math.min(Integer.MAX_VALUE, Math.min(8 * keys, 4 * span + 4));
+    }
+
+    /**
+     * @return size of a binary search over the ranges and the gaps between them, a compare per inner node and a goto per
+     * leaf
+     */
+    private static int searchBytes(int[] ranges) {
+        int regions = regionStarts(ranges).length;
+        return 1 + 8 * (regions - 1) + 3 * regions;
+    }
+
+    /**
+     * @return first char of every range and of every gap around them, covering all chars
+     */
+    private static int[] regionStarts(int[] ranges) {
+        int[] starts = new int[2 * ranges.length / 3 + 1];
+        int size = 0;
+        int next = 0;
+        for (int r = 0; r < ranges.length; r += 3) {
+            if (ranges[r] > next) {
+                starts[size++] = next;
+            }
+            starts[size++] = ranges[r];
+            next = ranges[r + 1] + 1;
+        }
+        if (next <= Character.MAX_VALUE) {
+            starts[size++] = next;
+        }
+        return Arrays.copyOf(starts, size);
+    }
+
+    /**
+     * The generated method is
+     * <pre>
+     * int state = start;
+     * while (i < length) {
+     *     char c = input.charAt(i++);
+     *     switch (state) {
+     *         case 0:
+     *             switch (c) {
+     *                 case 'a': state = 1; continue;
+     *                 ...
+     *                 default: return false;
+     *             }
+     *         ...
+     *     }
+     * }
+     * switch (state) { case final states: return true; default: return false; }
+     * </pre>
+     * with a single block per target state doing {@code state = to; continue;} that every switch jumps to. Keeping to
+     * one loop matters, HotSpot does not compile methods whose loops can be entered in more than one place.
+     */
+    private static byte[] generateClass(DFA dfa, String name) {
+        ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+        cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, name,
+                "Ljava/lang/Object;Ljava/util/function/Predicate<Ljava/lang/CharSequence;>;",
+                "java/lang/Object", new String[]{"java/util/function/Predicate"});
+
+        MethodVisitor init = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, "test", "(Ljava/lang/Object;)Z", null, null);
+        mv.visitCode();
+        Label reject = new Label();
+        if (dfa.getStart() == DFA.OFF_STATE) {
+            mv.visitJumpInsn(Opcodes.GOTO, reject);
+        } else {
+            generateLoop(mv, dfa, reject);
+        }
+        mv.visitLabel(reject);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitInsn(Opcodes.IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+
+        cw.visitEnd();
+        return cw.toByteArray();
+    }
+
+    private static void generateLoop(MethodVisitor mv, DFA dfa, Label reject) {
+        int n = dfa.getStateCount();
+        mv.visitVarInsn(Opcodes.ALOAD, 1);
+        mv.visitTypeInsn(Opcodes.CHECKCAST, CHAR_SEQUENCE);
+        mv.visitVarInsn(Opcodes.ASTORE, INPUT);
+        mv.visitVarInsn(Opcodes.ALOAD, INPUT);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, CHAR_SEQUENCE, "length", "()I", true);
+        mv.visitVarInsn(Opcodes.ISTORE, LENGTH);
+        mv.visitInsn(Opcodes.ICONST_0);
+        mv.visitVarInsn(Opcodes.ISTORE, INDEX);
+        push(mv, dfa.getStart());
+        mv.visitVarInsn(Opcodes.ISTORE, STATE);
+
+        // while (i < length) { c = input.charAt(i++); switch (state) ... }
+        Label loop = new Label();
+        Label done = new Label();
+        mv.visitLabel(loop);
+        mv.visitVarInsn(Opcodes.ILOAD, INDEX);
+        mv.visitVarInsn(Opcodes.ILOAD, LENGTH);
+        mv.visitJumpInsn(Opcodes.IF_ICMPGE, done);
+        mv.visitVarInsn(Opcodes.ALOAD, INPUT);
+        mv.visitVarInsn(Opcodes.ILOAD, INDEX);
+        mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, CHAR_SEQUENCE, "charAt", "(I)C", true);
+        mv.visitVarInsn(Opcodes.ISTORE, CHAR);
+        mv.visitIincInsn(INDEX, 1);
+
+        Label[] states = new Label[n];
+        Label[] moveTo = new Label[n];
+        for (int state = 0; state < n; state++) {
+            states[state] = new Label();
+            moveTo[state] = new Label();
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, STATE);
+        mv.visitTableSwitchInsn(0, n - 1, reject, states);
+        for (int state = 0; state < n; state++) {
+            mv.visitLabel(states[state]);
+            mv.visitVarInsn(Opcodes.ILOAD, CHAR);
+            generateCharSwitch(mv, dfa, state, moveTo, reject);
+        }
+        for (int state = 0; state < n; state++) {
+            mv.visitLabel(moveTo[state]);
+            push(mv, state);
+            mv.visitVarInsn(Opcodes.ISTORE, STATE);
+            mv.visitJumpInsn(Opcodes.GOTO, loop);
+        }
+
+        // return isFinal(state)
+        mv.visitLabel(done);
+        int finals = 0;
+        for (int state = 0; state < n; state++) {
+            finals += dfa.isFinal(state) ? 1 : 0;
+        }
+        int[] keys = new int[finals];
+        Label[] targets = new Label[finals];
+        Label accept = new Label();
+        for (int state = 0, k = 0; state < n; state++) {
+            if (dfa.isFinal(state)) {
+                keys[k] = state;
+                targets[k] = accept;
+                k++;
+            }
+        }
+        mv.visitVarInsn(Opcodes.ILOAD, STATE);
+        mv.visitLookupSwitchInsn(reject, keys, targets);
+        mv.visitLabel(accept);
+        mv.visitInsn(Opcodes.ICONST_1);
+        mv.visitInsn(Opcodes.IRETURN);
+    }
+
+    private static void generateCharSwitch(MethodVisitor mv, DFA dfa, int state, Label[] moveTo, Label reject) {
+        int[] ranges = ranges(dfa, state);
+        if (ranges.length == 0) {
+            mv.visitInsn(Opcodes.POP);
+            mv.visitJumpInsn(Opcodes.GOTO, reject);
+            return;
+        }
+        if (searchBytes(ranges) < switchBytes(ranges)) {
+            mv.visitInsn(Opcodes.POP);
+            int[] starts = regionStarts(ranges);
+            Label[] targets = new Label[starts.length];
+            for (int i = 0, r = 0; i < starts.length; i++) {
+                if (r < ranges.length && starts[i] == ranges[r]) {
+                    targets[i] = moveTo[ranges[r + 2]];
+                    r += 3;
+                } else {
+                    targets[i] = reject;
+                }
+            }
+            generateSearch(mv, starts, targets, 0, starts.length - 1);
+            return;
+        }
+        int edges = 0;
+        for (int r = 0; r < ranges.length; r += 3) {
+            edges += ranges[r + 1] - ranges[r] + 1;
+        }
+        int[] keys = new int[edges];
+        Label[] targets = new Label[edges];
+        int k = 0;
+        for (int r = 0; r < ranges.length; r += 3) {
+            for (int c = ranges[r]; c <= ranges[r + 1]; c++) {
+                keys[k] = c;
+                targets[k] = moveTo[ranges[r + 2]];
+                k++;
+            }
+        }
+        int low = keys[0];
+        int high = keys[edges - 1];
+        // whichever is smaller of a jump table over the key range and a sorted key list
+        if (4 * (high - low + 1) + 4 <= 8 * edges) {
+            Label[] range = new Label[high - low + 1];
+            Arrays.fill(range, reject);
+            for (int i = 0; i < edges; i++) {
+                range[keys[i] - low] = targets[i];
+            }
+            mv.visitTableSwitchInsn(low, high, reject, range);
+        } else {
+            mv.visitLookupSwitchInsn(reject, keys, targets);
+        }
+    }
+
+    /**
+     * Binary search for the region holding the char, {@code if (c < start) ... else ...} down to a goto per region
+     */
+    private static void generateSearch(MethodVisitor mv, int[] starts, Label[] targets, int from, int to) {
+        if (from == to) {
+            mv.visitJumpInsn(Opcodes.GOTO, targets[from]);
+            return;
+        }
+        int mid = (from + to + 1) >>> 1;
+        Label below = new Label();
+        mv.visitVarInsn(Opcodes.ILOAD, CHAR);
+        push(mv, starts[mid]);
+        mv.visitJumpInsn(Opcodes.IF_ICMPLT, below);
+        generateSearch(mv, starts, targets, mid, to);
+        mv.visitLabel(below);
+        generateSearch(mv, starts, targets, from, mid - 1);
+    }
+
+    private static void push(MethodVisitor mv, int value) {
+        if (value <= 5) {
+            mv.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+
+    private static class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
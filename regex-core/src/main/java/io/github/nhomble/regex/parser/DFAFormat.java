@@ -0,0 +1,258 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Binary format for a bundle of compiled {@link DFA}s, each stored under a name such as the regex it was compiled from.
+ * Loading maps the file and hands out {@link MappedDFA}s reading from the mapping, so only the headers are ever parsed and
+ * processes loading the same file share its pages.
+ * <p>
+ * Everything is big endian and every section starts on a 4 byte boundary:
+ * <pre>
+ * int   magic "RDFA"
+ * short version
+ * short reserved, 0
+ * int   count
+ * count times:
+ *   int   name length, then the name in UTF-8 and padding
+ *   int   width, the number of columns
+ *   int   intervals
+ *   int   states
+ *   int   start state, -1 if there is none
+ *   int   bytes per table entry, 2 or 4
+ *   intervals times: char lo, char hi, int column, sorted by lo
+ *   int[] final states, one bit per state
+ *   table of states * width entries holding the target state plus one, 0 for no transition, then padding
+ * </pre>
+ * Version 1 bundles, whose columns were every char from the lowest signal on, are still read: in place of the width
+ * and intervals they hold the lowest signal and the width, and there are no intervals.
+ */
+public final class DFAFormat {
+
+    public static final int MAGIC = 0x52444641;
+    public static final short VERSION = 2;
+    private static final short CHAR_COLUMNS_VERSION = 1;
+
+    private DFAFormat() {
+    }
+
+    /**
+     * Write the bundle next to the file and move it into place, so processes that have the old file mapped keep
+     * reading the old contents
+     *
+     * @param dfas
+     * @param file
+     */
+    public static void write(Map<String, DFA> dfas, Path file) {
+        Preconditions.checkNotNull(file);
+        Path absolute = file.toAbsolutePath();
+        try {
+            Path tmp = Files.createTempFile(absolute.getParent(), absolute.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tmp)) {
+                    write(dfas, out);
+                }
+                Files.move(tmp, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tmp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param dfas single pattern automata, in the order they should be stored
+     * @param out  left open
+     */
+    public static void write(Map<String, DFA> dfas, OutputStream out) throws IOException {
+        Preconditions.checkNotNull(dfas);
+        Preconditions.checkNotNull(out);
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(0);
+        data.writeInt(dfas.size());
+        for (Map.Entry<String, DFA> entry : dfas.entrySet()) {
+            DFA dfa = entry.getValue();
+            Preconditions.checkArgument(dfa.getMatchingPatterns() == null, "pattern ids of %s would be lost", entry.getKey());
+            byte[] name = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            data.writeInt(name.length);
+            data.write(name);
+            pad(data, name.length);
+
+            int n = dfa.getStateCount();
+            Alphabet alphabet = dfa.getAlphabet();
+            int entryBytes = entryBytes(n);
+            data.writeInt(alphabet.size());
+            data.writeInt(alphabet.getIntervalCount());
+            data.writeInt(n);
+            data.writeInt(dfa.getStart());
+            data.writeInt(entryBytes);
+            for (int i = 0; i < alphabet.getIntervalCount(); i++) {
+                data.writeChar(alphabet.lo(i));
+                data.writeChar(alphabet.hi(i));
+                data.writeInt(alphabet.column(i));
+            }
+            for (int word = 0; word < finalWords(n); word++) {
+                int bits = 0;
+                for (int bit = 0; bit < 32 && word * 32 + bit < n; bit++) {
+                    bits |= dfa.isFinal(word * 32 + bit) ? 1 << bit : 0;
+                }
+                data.writeInt(bits);
+            }
+            for (int to : dfa.getTable()) {
+                if (entryBytes == Short.BYTES) {
+                    data.writeShort(to + 1);
+                } else {
+                    data.writeInt(to + 1);
+                }
+            }
+            pad(data, dfa.getTable().length * entryBytes);
+        }
+        data.flush();
+    }
+
+    /**
+     * Map the file read only. The mapping stays valid after the file is replaced or deleted and is released once every
+     * returned automaton is garbage.
+     *
+     * @param file
+     * @return automata by name, in file order
+     */
+    public static Map<String, MappedDFA> load(Path file) {
+        Preconditions.checkNotNull(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Preconditions.checkArgument(channel.size() <= Integer.MAX_VALUE, "%s is too large to map", file);
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param buffer a whole bundle from its first byte, read with absolute gets only
+     * @return automata by name, in file order
+     */
+    public static Map<String, MappedDFA> read(ByteBuffer buffer) {
+        Preconditions.checkNotNull(buffer);
+        Preconditions.checkArgument(buffer.limit() >= 12 && buffer.getInt(0) == MAGIC, "not a compiled DFA bundle");
+        short version = buffer.getShort(4);
+        Preconditions.checkArgument(version == VERSION || version == CHAR_COLUMNS_VERSION,
+                "unsupported DFA bundle version %s, expected %s", version, VERSION);
+        int count = buffer.getInt(8);
+        Preconditions.checkArgument(count >= 0, "corrupt DFA bundle");
+
+        Map<String, MappedDFA> dfas = new LinkedHashMap<>();
+        int offset = 12;
+        for (int i = 0; i < count; i++) {
+            int nameLength = checkedInt(buffer, offset);
+            byte[] name = new byte[nameLength];
+            checkRemaining(buffer, offset + 4, nameLength);
+            for (int b = 0; b < nameLength; b++) {
+                name[b] = buffer.get(offset + 4 + b);
+            }
+            offset += 4 + align(nameLength);
+
+            int width = checkedInt(buffer, offset + 4);
+            int n = checkedInt(buffer, offset + 8);
+            int start = buffer.getInt(offset + 12);
+            int entryBytes = checkedInt(buffer, offset + 16);
+            Preconditions.checkArgument(entryBytes == entryBytes(n) && start >= DFA.OFF_STATE && start < n,
+                    "corrupt DFA bundle");
+            Alphabet alphabet;
+            if (version == CHAR_COLUMNS_VERSION) {
+                int minSignal = checkedInt(buffer, offset);
+                Preconditions.checkArgument(minSignal + width <= Character.MAX_VALUE + 1, "corrupt DFA bundle");
+                alphabet = Alphabet.singles((char) minSignal, width);
+                offset += 20;
+            } else {
+                width = checkedInt(buffer, offset);
+                alphabet = readAlphabet(buffer, offset + 20, checkedInt(buffer, offset + 4), width);
+                offset += 20 + alphabet.getIntervalCount() * 8;
+            }
+            ByteBuffer finals = slice(buffer, offset, finalWords(n) * Integer.BYTES);
+            offset += finalWords(n) * Integer.BYTES;
+            long tableBytes = (long) n * width * entryBytes;
+            Preconditions.checkArgument(tableBytes <= Integer.MAX_VALUE, "corrupt DFA bundle");
+            ByteBuffer table = slice(buffer, offset, (int) tableBytes);
+            offset += align((int) tableBytes);
+
+            dfas.put(new String(name, StandardCharsets.UTF_8),
+                    new MappedDFA(alphabet, n, start, entryBytes, finals, table));
+        }
+        return Collections.unmodifiableMap(dfas);
+    }
+
+    private static Alphabet readAlphabet(ByteBuffer buffer, int offset, int intervals, int width) {
+        checkRemaining(buffer, offset, intervals * 8);
+        char[] lo = new char[intervals];
+        char[] hi = new char[intervals];
+        int[] column = new int[intervals];
+        for (int i = 0; i < intervals; i++) {
+            lo[i] = buffer.getChar(offset + i * 8);
+            hi[i] = buffer.getChar(offset + i * 8 + 2);
+            column[i] = buffer.getInt(offset + i * 8 + 4);
+            Preconditions.checkArgument(lo[i] <= hi[i] && (i == 0 || lo[i] > hi[i - 1])
+                    && column[i] >= 0 && column[i] < width, "corrupt DFA bundle");
+        }
+        return new Alphabet(lo, hi, column, width);
+    }
+
+    private static int entryBytes(int stateCount) {
+        // entries hold the state plus one
+        return stateCount < 0xFFFF ? Short.BYTES : Integer.BYTES;
+    }
+
+    private static int finalWords(int stateCount) {
+        return (stateCount + 31) / 32;
+    }
+
+    private static int align(int length) {
+        return (length + 3) & ~3;
+    }
+
+    private static void pad(DataOutputStream data, int length) throws IOException {
+        for (int i = length; i < align(length); i++) {
+            data.writeByte(0);
+        }
+    }
+
+    private static int checkedInt(ByteBuffer buffer, int offset) {
+        checkRemaining(buffer, offset, Integer.BYTES);
+        int value = buffer.getInt(offset);
+        Preconditions.checkArgument(value >= 0, "corrupt DFA bundle");
+        return value;
+    }
+
+    private static void checkRemaining(ByteBuffer buffer, int offset, int length) {
+        Preconditions.checkArgument(offset >= 0 && length >= 0 && (long) offset + length <= buffer.limit(),
+                "truncated DFA bundle");
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int offset, int length) {
+        checkRemaining(buffer, offset, length);
+        ByteBuffer view = buffer.duplicate();
+        // through Buffer so the calls also link on Java 8, where ByteBuffer does not override these
+        ((Buffer) view).limit(offset + length);
+        ((Buffer) view).position(offset);
+        return view.slice();
+    }
+}
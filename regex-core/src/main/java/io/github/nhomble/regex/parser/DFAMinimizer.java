@@ -0,0 +1,237 @@
+package io.github.nhomble.regex.parser;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Hopcroft's partition refinement over a {@link DFA} table. States start out split by what they accept, which is just
+ * final or not for a single pattern and the set of matching patterns for a DFA built from several.
+ * <p>
+ * Falling off the table ({@link DFA#OFF_STATE}) is treated as an extra non-final sink state so that the transition
+ * function is total. Every state that ends up equivalent to that sink (e.g. the empty subset from subset construction)
+ * is dropped and its incoming transitions go back to {@link DFA#OFF_STATE}, except for the start state of a pattern
+ * that matches nothing, which stays as a state with no way out.
+ */
+final class DFAMinimizer {
+
+    private DFAMinimizer() {
+    }
+
+    static DFA minimize(DFA dfa) {
+        int[] table = dfa.getTable();
+        int width = dfa.getWidth();
+        boolean[] finals = dfa.getFinalStates();
+        int[][] matching = dfa.getMatchingPatterns();
+        int n = finals.length;
+        int sink = n;
+        int size = n + 1;
+
+        // only columns that some state actually leaves by can tell states apart
+        int[] columns = new int[width];
+        int k = 0;
+        for (int column = 0; column < width; column++) {
+            for (int state = 0; state < n; state++) {
+                if (table[state * width + column] != DFA.OFF_STATE) {
+                    columns[k++] = column;
+                    break;
+                }
+            }
+        }
+
+        // inverse transitions, grouped by (column, target)
+        int[] predStart = new int[k * size + 1];
+        int[] preds = new int[k * size];
+        for (int j = 0; j < k; j++) {
+            for (int state = 0; state < size; state++) {
+                predStart[j * size + target(table, width, sink, state, columns[j]) + 1]++;
+            }
+        }
+        for (int i = 0; i < k * size; i++) {
+            predStart[i + 1] += predStart[i];
+        }
+        int[] cursor = Arrays.copyOf(predStart, k * size);
+        for (int j = 0; j < k; j++) {
+            for (int state = 0; state < size; state++) {
+                preds[cursor[j * size + target(table, width, sink, state, columns[j])]++] = state;
+            }
+        }
+
+        // label states by what they accept, the sink accepts nothing
+        int[] label = new int[size];
+        int labels = 1;
+        if (matching == null) {
+            for (int state = 0; state < n; state++) {
+                label[state] = finals[state] ? 1 : 0;
+            }
+            labels = 2;
+        } else {
+            // DFAState is only used as a hashed int[] here
+            Map<DFA.DFAState, Integer> accepts = new HashMap<>();
+            accepts.put(new DFA.DFAState(new int[0]), 0);
+            for (int state = 0; state < n; state++) {
+                DFA.DFAState key = new DFA.DFAState(matching[state]);
+                Integer id = accepts.get(key);
+                if (id == null) {
+                    id = labels++;
+                    accepts.put(key, id);
+                }
+                label[state] = id;
+            }
+        }
+
+        // blocks are contiguous runs of elems, states marked during a split are swapped to the front of their block
+        int[] elems = new int[size];
+        int[] loc = new int[size];
+        int[] blockOf = new int[size];
+        int[] first = new int[size];
+        int[] end = new int[size];
+        int[] marked = new int[size];
+        int[] labelStart = new int[labels + 1];
+        for (int state = 0; state < size; state++) {
+            labelStart[label[state] + 1]++;
+        }
+        for (int l = 0; l < labels; l++) {
+            labelStart[l + 1] += labelStart[l];
+        }
+        int blocks = 0;
+        int[] blockOfLabel = new int[labels];
+        for (int l = 0; l < labels; l++) {
+            if (labelStart[l + 1] > labelStart[l]) {
+                blockOfLabel[l] = blocks;
+                first[blocks] = labelStart[l];
+                end[blocks] = labelStart[l];
+                blocks++;
+            }
+        }
+        for (int state = 0; state < size; state++) {
+            int b = blockOfLabel[label[state]];
+            elems[end[b]] = state;
+            loc[state] = end[b];
+            blockOf[state] = b;
+            end[b]++;
+        }
+
+        // every block but the largest starts out as a splitter
+        int[] work = new int[size * k];
+        boolean[] inWork = new boolean[size * k];
+        int workSize = 0;
+        int largest = 0;
+        for (int b = 1; b < blocks; b++) {
+            if (end[b] - first[b] > end[largest] - first[largest]) {
+                largest = b;
+            }
+        }
+        for (int b = 0; b < blocks; b++) {
+            if (b == largest) {
+                continue;
+            }
+            for (int j = 0; j < k; j++) {
+                work[workSize++] = b * k + j;
+                inWork[b * k + j] = true;
+            }
+        }
+
+        int[] splitter = new int[size];
+        int[] touched = new int[size];
+        while (workSize > 0) {
+            int w = work[--workSize];
+            inWork[w] = false;
+            int block = w / k;
+            int j = w % k;
+
+            int members = end[block] - first[block];
+            System.arraycopy(elems, first[block], splitter, 0, members);
+            int touchedCount = 0;
+            for (int m = 0; m < members; m++) {
+                int t = splitter[m];
+                for (int p = predStart[j * size + t]; p < predStart[j * size + t + 1]; p++) {
+                    int pred = preds[p];
+                    int b = blockOf[pred];
+                    int boundary = first[b] + marked[b];
+                    int i = loc[pred];
+                    if (i >= boundary) {
+                        int other = elems[boundary];
+                        elems[boundary] = pred;
+                        loc[pred] = boundary;
+                        elems[i] = other;
+                        loc[other] = i;
+                        if (marked[b]++ == 0) {
+                            touched[touchedCount++] = b;
+                        }
+                    }
+                }
+            }
+
+            for (int t = 0; t < touchedCount; t++) {
+                int b = touched[t];
+                if (marked[b] == end[b] - first[b]) {
+                    marked[b] = 0;
+                    continue;
+                }
+                int nb = blocks++;
+                first[nb] = first[b];
+                end[nb] = first[b] + marked[b];
+                first[b] = end[nb];
+                marked[b] = 0;
+                for (int i = first[nb]; i < end[nb]; i++) {
+                    blockOf[elems[i]] = nb;
+                }
+                boolean newIsSmaller = end[nb] - first[nb] <= end[b] - first[b];
+                for (int jj = 0; jj < k; jj++) {
+                    int add = inWork[b * k + jj] || newIsSmaller ? nb : b;
+                    if (!inWork[add * k + jj]) {
+                        inWork[add * k + jj] = true;
+                        work[workSize++] = add * k + jj;
+                    }
+                }
+            }
+        }
+
+        // renumber blocks in order of their first original state so the output stays stable
+        int sinkBlock = blockOf[sink];
+        int[] newId = new int[blocks];
+        Arrays.fill(newId, DFA.OFF_STATE);
+        int[] representative = new int[blocks];
+        int count = 0;
+        // a pattern that matches nothing keeps its start as a dead state that every char falls off
+        boolean deadStart = blockOf[dfa.getStart()] == sinkBlock;
+        if (deadStart) {
+            representative[count++] = dfa.getStart();
+        }
+        for (int state = 0; state < n; state++) {
+            int b = blockOf[state];
+            if (b != sinkBlock && newId[b] == DFA.OFF_STATE) {
+                newId[b] = count;
+                representative[count] = state;
+                count++;
+            }
+        }
+
+        int[] newTable = new int[count * width];
+        boolean[] newFinals = new boolean[count];
+        int[][] newMatching = matching == null ? null : new int[count][];
+        for (int id = 0; id < count; id++) {
+            int state = representative[id];
+            newFinals[id] = finals[state];
+            if (newMatching != null) {
+                newMatching[id] = matching[state];
+            }
+            for (int column = 0; column < width; column++) {
+                int to = table[state * width + column];
+                newTable[id * width + column] = to == DFA.OFF_STATE ? DFA.OFF_STATE : newId[blockOf[to]];
+            }
+        }
+        int start = deadStart ? 0 : newId[blockOf[dfa.getStart()]];
+        return new DFA(newTable, dfa.getAlphabet(), start, newFinals, newMatching,
+                dfa.getConstructedStateCount());
+    }
+
+    private static int target(int[] table, int width, int sink, int state, int column) {
+        if (state == sink) {
+            return sink;
+        }
+        int to = table[state * width + column];
+        return to == DFA.OFF_STATE ? sink : to;
+    }
+}
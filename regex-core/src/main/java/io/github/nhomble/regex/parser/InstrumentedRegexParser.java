@@ -0,0 +1,34 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.matcher.InstrumentedRegexMatcher;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+
+/**
+ * Reports how long the delegate takes to compile every regex, and hands out {@link InstrumentedRegexMatcher}s so every
+ * match is reported too, all under the given backend name. Metrics are looked up on every call, so wrapping before
+ * {@link Instrumentation#install} is fine.
+ */
+public class InstrumentedRegexParser implements RegexParser {
+
+    private final RegexParser delegate;
+    private final String backend;
+
+    public InstrumentedRegexParser(RegexParser delegate, String backend) {
+        Preconditions.checkNotNull(delegate);
+        Preconditions.checkNotNull(backend);
+        this.delegate = delegate;
+        this.backend = backend;
+    }
+
+    @Override
+    public RegexMatcher parse(String regex) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        RegexMatcher matcher = delegate.parse(regex);
+        metrics.compiled(backend, regex, start);
+        return new InstrumentedRegexMatcher(matcher, backend, regex);
+    }
+}
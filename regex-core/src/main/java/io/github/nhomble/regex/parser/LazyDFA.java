@@ -0,0 +1,211 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Subset construction done on the fly while matching. DFA states are only built the first time the input walks into
+ * them and are kept in a cache of at most {@code maxStates} states which is flushed when it fills up, so memory stays
+ * bounded no matter how badly the full {@link DFA} would blow up.
+ * <p>
+ * The cache is shared by every thread matching against this instance. A cached state is immutable apart from its lazily
+ * filled transition slots, and those only ever go from {@code null} to an equivalent state, so racing threads at worst
+ * compute the same transition twice. If an input keeps flushing the cache before getting
+ * {@link #MIN_CHARS_PER_STATE} chars of use out of each state, the rest of that input is matched by plain NFA
+ * simulation instead.
+ */
+public class LazyDFA {
+
+    public static final int DEFAULT_MAX_STATES = 4096;
+    public static final int MIN_CHARS_PER_STATE = 10;
+
+    private final NFA nfa;
+    private final int maxStates;
+    private final Alphabet alphabet;
+    private final int width;
+    private final AtomicReference<Generation> generation;
+    private final ThreadLocal<SparseSet> scratch;
+    private final AtomicLong flushes = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    LazyDFA(NFA nfa, int maxStates) {
+        Preconditions.checkArgument(maxStates >= 2, "need room for at least the start state and one more");
+        this.nfa = nfa;
+        this.maxStates = maxStates;
+
+        this.alphabet = nfa.getAlphabet();
+        this.width = alphabet.size();
+
+        this.scratch = ThreadLocal.withInitial(() -> new SparseSet(nfa.getStateCount()));
+        this.generation = new AtomicReference<>(new Generation());
+    }
+
+    public static LazyDFA parse(String regex) {
+        return parse(regex, DEFAULT_MAX_STATES);
+    }
+
+    public static LazyDFA parse(String regex, int maxStates) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return new LazyDFA(NFA.parseTree(regex), maxStates);
+    }
+
+    public boolean matches(CharSequence input) {
+        Preconditions.checkNotNull(input);
+        Generation gen = generation.get();
+        State state = gen.start;
+        int lastFlush = -1;
+        for (int i = 0; i < input.length(); i++) {
+            int column = alphabet.columnOf(input.charAt(i));
+            if (column < 0) {
+                return false;
+            }
+            State next = state.next[column];
+            if (next == null) {
+                DFA.DFAState key = DFA.step(nfa, state.key.getNfaStates(), column, scratch.get());
+                next = gen.intern(key);
+                if (next == null) {
+                    if (lastFlush >= 0 && i - lastFlush < MIN_CHARS_PER_STATE * maxStates) {
+                        fallbacks.incrementAndGet();
+                        return simulate(key.getNfaStates(), input, i + 1);
+                    }
+                    lastFlush = i;
+                    while (next == null) {
+                        gen = flush(gen);
+                        next = gen.intern(key);
+                    }
+                } else {
+                    state.next[column] = next;
+                }
+            }
+            if (next.dead) {
+                return false;
+            }
+            state = next;
+        }
+        return state.accepting;
+    }
+
+    /**
+     * Thompson simulation from the given set of NFA states, which costs {@code O(states)} per char but no memory beyond
+     * two state sets
+     */
+    private boolean simulate(int[] states, CharSequence input, int from) {
+        SparseSet curr = new SparseSet(nfa.getStateCount());
+        SparseSet next = new SparseSet(nfa.getStateCount());
+        curr.addAll(states);
+        for (int i = from; i < input.length() && !curr.isEmpty(); i++) {
+            int column = alphabet.columnOf(input.charAt(i));
+            if (column < 0) {
+                return false;
+            }
+            next.clear();
+            for (int s = 0; s < curr.size(); s++) {
+                int state = curr.get(s);
+                for (int edge = nfa.edgeStart(state); edge < nfa.edgeEnd(state); edge++) {
+                    if (nfa.edgeReads(edge, column)) {
+                        next.addAll(nfa.epsClosure(nfa.edgeTarget(edge)));
+                    }
+                }
+            }
+            SparseSet tmp = curr;
+            curr = next;
+            next = tmp;
+        }
+        return curr.contains(nfa.getFinalState());
+    }
+
+    private Generation flush(Generation full) {
+        Generation fresh = new Generation();
+        if (generation.compareAndSet(full, fresh)) {
+            flushes.incrementAndGet();
+            return fresh;
+        }
+        // someone else already flushed
+        return generation.get();
+    }
+
+    public int getMaxStates() {
+        return maxStates;
+    }
+
+    public int getAlphabetSize() {
+        return width;
+    }
+
+    public int getCachedStateCount() {
+        return generation.get().size.get();
+    }
+
+    public long getFlushCount() {
+        return flushes.get();
+    }
+
+    public long getNfaFallbackCount() {
+        return fallbacks.get();
+    }
+
+    private static class State {
+        private final DFA.DFAState key;
+        private final boolean accepting;
+        private final boolean dead;
+        private final State[] next;
+
+        State(DFA.DFAState key, boolean accepting, int width) {
+            this.key = key;
+            this.accepting = accepting;
+            this.dead = key.getNfaStates().length == 0;
+            this.next = new State[width];
+        }
+    }
+
+    /**
+     * One fill of the cache. Flushing swaps in a fresh generation and the old one is collected once no matcher is still
+     * walking it.
+     */
+    private class Generation {
+        private final ConcurrentHashMap<DFA.DFAState, State> states = new ConcurrentHashMap<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final State start;
+
+        Generation() {
+            start = intern(new DFA.DFAState(nfa.epsClosure(nfa.getInitialState())));
+        }
+
+        /**
+         * @param key
+         * @return the cached state for key, or null if it isn't cached and there is no room left
+         */
+        State intern(DFA.DFAState key) {
+            State existing = states.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            if (!reserve()) {
+                return null;
+            }
+            State created = new State(key, key.contains(nfa.getFinalState()), width);
+            State raced = states.putIfAbsent(key, created);
+            if (raced != null) {
+                size.decrementAndGet();
+                return raced;
+            }
+            return created;
+        }
+
+        /**
+         * Take a slot before inserting so that racing threads can't push the cache past {@code maxStates}
+         */
+        private boolean reserve() {
+            for (int n = size.get(); n < maxStates; n = size.get()) {
+                if (size.compareAndSet(n, n + 1)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
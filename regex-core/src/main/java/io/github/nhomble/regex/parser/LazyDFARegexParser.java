@@ -0,0 +1,24 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.matcher.LazyDFAMatcher;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+
+public class LazyDFARegexParser implements RegexParser {
+
+    private final int maxStates;
+
+    public LazyDFARegexParser() {
+        this(LazyDFA.DEFAULT_MAX_STATES);
+    }
+
+    public LazyDFARegexParser(int maxStates) {
+        this.maxStates = maxStates;
+    }
+
+    @Override
+    public RegexMatcher parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return new LazyDFAMatcher(LazyDFA.parse(regex, maxStates));
+    }
+}
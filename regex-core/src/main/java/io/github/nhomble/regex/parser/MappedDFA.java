@@ -0,0 +1,79 @@
+package io.github.nhomble.regex.parser;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link DFA} read straight out of a buffer written by {@link DFAFormat}, usually a read only mapping of the file. Every
+ * step reads the transition from the buffer itself, nothing is copied onto the heap. Reads are absolute so a single
+ * instance is safe to share across threads. Only the {@link Alphabet}, a few intervals, is read onto the heap.
+ */
+public class MappedDFA {
+
+    private final Alphabet alphabet;
+    private final int width;
+    private final int stateCount;
+    private final int start;
+    private final int entryBytes;
+    // one bit per state, packed into ints
+    private final ByteBuffer finals;
+    // stateCount * width entries of entryBytes each, holding the target state plus one so that 0 is OFF_STATE
+    private final ByteBuffer table;
+
+    MappedDFA(Alphabet alphabet, int stateCount, int start, int entryBytes, ByteBuffer finals, ByteBuffer table) {
+        this.alphabet = alphabet;
+        this.width = alphabet.size();
+        this.stateCount = stateCount;
+        this.start = start;
+        this.entryBytes = entryBytes;
+        this.finals = finals;
+        this.table = table;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getStateCount() {
+        return stateCount;
+    }
+
+    public int getAlphabetSize() {
+        return width;
+    }
+
+    public int next(int state, char input) {
+        int column = alphabet.columnOf(input);
+        if (state == DFA.OFF_STATE || column < 0) {
+            return DFA.OFF_STATE;
+        }
+        return target(state * width + column);
+    }
+
+    private int target(int entry) {
+        if (entryBytes == Short.BYTES) {
+            return (table.getShort(entry * Short.BYTES) & 0xFFFF) - 1;
+        }
+        return table.getInt(entry * Integer.BYTES) - 1;
+    }
+
+    public boolean isFinal(int state) {
+        return state != DFA.OFF_STATE && (finals.getInt((state >>> 5) * Integer.BYTES) & (1 << (state & 31))) != 0;
+    }
+
+    /**
+     * Copy the automaton onto the heap, for the backends that need a {@link DFA} of their own
+     *
+     * @return
+     */
+    public DFA toDFA() {
+        int[] copy = new int[stateCount * width];
+        boolean[] finalStates = new boolean[stateCount];
+        for (int state = 0; state < stateCount; state++) {
+            finalStates[state] = isFinal(state);
+            for (int column = 0; column < width; column++) {
+                copy[state * width + column] = target(state * width + column);
+            }
+        }
+        return new DFA(copy, alphabet, start, finalStates, null, stateCount);
+    }
+}
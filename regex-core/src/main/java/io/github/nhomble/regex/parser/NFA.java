@@ -0,0 +1,387 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+
+import java.util.*;
+
+/**
+ * Thompson construction from ParseTree
+ * <p>
+ * Edges are kept per state in compressed arrays: {@code epsStart[s]..epsStart[s + 1]} indexes the epsilon targets of
+ * {@code s} and {@code edgeStart[s]..edgeStart[s + 1]} its labelled edges. The whole automaton is built in a single
+ * post order pass over the {@link ParseTree}, so both time and memory are linear in the length of the pattern.
+ * <p>
+ * A labelled edge reads a char interval, a class being one edge per interval. The intervals are split into atoms and
+ * every edge reads a run of consecutive atoms. Atoms that lead between exactly the same pairs of states can't be told
+ * apart, so the {@link Alphabet} automata are built over has one column per such equivalence class rather than per atom.
+ */
+public class NFA {
+
+    private final int initialState;
+    // accepting state of every pattern, indexed by pattern id
+    private final int[] finalStates;
+    private final int[] epsStart;
+    private final int[] epsTargets;
+    private final int[] edgeStart;
+    private final int[] edgeTargets;
+    // first and last atom each edge reads
+    private final int[] edgeFirst;
+    private final int[] edgeLast;
+    private final Alphabet atoms;
+    private final Alphabet alphabet;
+    // an atom of every column of the alphabet
+    private final int[] representative;
+    private final int[][] closures;
+
+    private NFA(Builder builder, int initialState, int[] finalStates) {
+        this.initialState = initialState;
+        this.finalStates = finalStates;
+        int n = builder.states;
+
+        epsStart = new int[n + 1];
+        edgeStart = new int[n + 1];
+        for (int i = 0; i < builder.edges; i++) {
+            if (builder.epsilon[i]) {
+                epsStart[builder.from[i] + 1]++;
+            } else {
+                edgeStart[builder.from[i] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            epsStart[i + 1] += epsStart[i];
+            edgeStart[i + 1] += edgeStart[i];
+        }
+        epsTargets = new int[epsStart[n]];
+        edgeTargets = new int[edgeStart[n]];
+        edgeFirst = new int[edgeStart[n]];
+        edgeLast = new int[edgeStart[n]];
+        atoms = builder.alphabet();
+        int[] epsCursor = Arrays.copyOf(epsStart, n);
+        int[] edgeCursor = Arrays.copyOf(edgeStart, n);
+        for (int i = 0; i < builder.edges; i++) {
+            if (builder.epsilon[i]) {
+                epsTargets[epsCursor[builder.from[i]]++] = builder.to[i];
+            } else {
+                int edge = edgeCursor[builder.from[i]]++;
+                edgeTargets[edge] = builder.to[i];
+                edgeFirst[edge] = atoms.intervalOf(builder.lo[i]);
+                edgeLast[edge] = atoms.intervalOf(builder.hi[i]);
+            }
+        }
+        // edges between the same two states are as good as one
+        int[] pair = new int[edgeTargets.length];
+        Map<Long, Integer> pairs = new HashMap<>();
+        for (int state = 0; state < n; state++) {
+            for (int edge = edgeStart[state]; edge < edgeStart[state + 1]; edge++) {
+                pair[edge] = pairs.computeIfAbsent((long) state << 32 | edgeTargets[edge], key -> pairs.size());
+            }
+        }
+        int[] classOf = Alphabet.classes(atoms.size(), edgeFirst, edgeLast, pair, pair.length);
+        alphabet = atoms.merge(classOf);
+        representative = new int[alphabet.size()];
+        for (int atom = classOf.length - 1; atom >= 0; atom--) {
+            representative[classOf[atom]] = atom;
+        }
+
+        closures = new int[n][];
+        SparseSet seen = new SparseSet(n);
+        int[] stack = new int[n];
+        closures[initialState] = closure(initialState, seen, stack);
+        for (int target : edgeTargets) {
+            if (closures[target] == null) {
+                closures[target] = closure(target, seen, stack);
+            }
+        }
+    }
+
+    private int[] closure(int state, SparseSet seen, int[] stack) {
+        seen.clear();
+        seen.add(state);
+        int top = 0;
+        stack[top++] = state;
+        while (top > 0) {
+            int curr = stack[--top];
+            for (int i = epsStart[curr]; i < epsStart[curr + 1]; i++) {
+                if (seen.add(epsTargets[i])) {
+                    stack[top++] = epsTargets[i];
+                }
+            }
+        }
+        return seen.toSortedArray();
+    }
+
+    /**
+     * @return every column of the alphabet as its chars, e.g. {@code a}, {@code a-z} or {@code a-w,y-z}, in ascending order
+     */
+    public Set<String> getSignals() {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (int column = 0; column < alphabet.size(); column++) {
+            builder.add(alphabet.label(column));
+        }
+        return builder.build();
+    }
+
+    Alphabet getAlphabet() {
+        return alphabet;
+    }
+
+    public int getStateCount() {
+        return epsStart.length - 1;
+    }
+
+    int edgeStart(int state) {
+        return edgeStart[state];
+    }
+
+    int edgeEnd(int state) {
+        return edgeStart[state + 1];
+    }
+
+    /**
+     * @param edge
+     * @param column of {@link #getAlphabet()}
+     * @return whether the edge reads the chars of the column
+     */
+    boolean edgeReads(int edge, int column) {
+        int atom = representative[column];
+        return edgeFirst[edge] <= atom && atom <= edgeLast[edge];
+    }
+
+    int edgeTarget(int edge) {
+        return edgeTargets[edge];
+    }
+
+    /**
+     * Memoized epsilon closure, available for the initial state and every target of a labelled edge which are the only
+     * states subset construction ever asks about
+     *
+     * @param state
+     * @return
+     */
+    int[] epsClosure(int state) {
+        return closures[state];
+    }
+
+    public int getInitialState() {
+        return initialState;
+    }
+
+    public int getFinalState() {
+        return finalStates[0];
+    }
+
+    /**
+     * @return accepting state of every pattern, indexed by pattern id. Only a {@link #union(List)} has more than one.
+     */
+    int[] getFinalStates() {
+        return finalStates;
+    }
+
+    public int getPatternCount() {
+        return finalStates.length;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int from = 0; from < getStateCount(); from++) {
+            for (int i = epsStart[from]; i < epsStart[from + 1]; i++) {
+                builder.append("From=").append(from)
+                        .append(" to=").append(epsTargets[i])
+                        .append(" by signal=EPS")
+                        .append("\n");
+            }
+            for (int i = edgeStart[from]; i < edgeStart[from + 1]; i++) {
+                builder.append("From=").append(from)
+                        .append(" to=").append(edgeTargets[i])
+                        .append(" by signal=").append(CharClass.label(atoms.lo(edgeFirst[i]), atoms.hi(edgeLast[i])))
+                        .append("\n");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * convenience wrapper around a string that uses the intermediate {@link ParseTree} representation to do the parsing
+     * into {@link NFA}
+     *
+     * @param regex
+     * @return
+     */
+    public static NFA parseTree(String regex) {
+        return parseTree(ParseTree.parse(regex));
+    }
+
+    public static NFA parseTree(ParseTree tree) {
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        Builder builder = new Builder();
+        NFA nfa = builder.build(builder.parseTree(tree));
+        metrics.phase(RegexMetrics.CompilePhase.NFA, start);
+        metrics.nfaBuilt(nfa.getStateCount());
+        return nfa;
+    }
+
+    /**
+     * One automaton for several patterns: a fresh initial state with an epsilon edge into each pattern's own Thompson
+     * automaton, whose final state is kept apart as that pattern's accepting state
+     *
+     * @param trees
+     * @return
+     */
+    public static NFA union(List<ParseTree> trees) {
+        Preconditions.checkArgument(!trees.isEmpty());
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        Builder builder = new Builder();
+        int initial = builder.newState();
+        int[] finals = new int[trees.size()];
+        for (int i = 0; i < trees.size(); i++) {
+            Fragment fragment = builder.parseTree(trees.get(i));
+            builder.addEpsilon(initial, fragment.initial);
+            finals[i] = fragment.end;
+        }
+        NFA nfa = new NFA(builder, initial, finals);
+        metrics.phase(RegexMetrics.CompilePhase.NFA, start);
+        metrics.nfaBuilt(nfa.getStateCount());
+        return nfa;
+    }
+
+    /**
+     * Entry and exit of a partially built automaton. Thompson fragments never have edges into their initial state or out
+     * of their final state, which is what lets us wire them together with plain epsilon edges.
+     */
+    static class Fragment {
+        private final int initial;
+        private final int end;
+
+        Fragment(int initial, int end) {
+            this.initial = initial;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Append-only edge list that {@link NFA} compresses into per state arrays once construction is done
+     */
+    static class Builder {
+        private int states;
+        private int edges;
+        private int[] from = new int[16];
+        private int[] to = new int[16];
+        private char[] lo = new char[16];
+        private char[] hi = new char[16];
+        private boolean[] epsilon = new boolean[16];
+
+        int newState() {
+            return states++;
+        }
+
+        Builder addEpsilon(int fromState, int toState) {
+            return add(fromState, toState, (char) 0, (char) 0, true);
+        }
+
+        Builder addEdge(int fromState, int toState, char low, char high) {
+            return add(fromState, toState, low, high, false);
+        }
+
+        private Builder add(int fromState, int toState, char low, char high, boolean eps) {
+            if (edges == from.length) {
+                int size = edges * 2;
+                from = Arrays.copyOf(from, size);
+                to = Arrays.copyOf(to, size);
+                lo = Arrays.copyOf(lo, size);
+                hi = Arrays.copyOf(hi, size);
+                epsilon = Arrays.copyOf(epsilon, size);
+            }
+            from[edges] = fromState;
+            to[edges] = toState;
+            lo[edges] = low;
+            hi[edges] = high;
+            epsilon[edges] = eps;
+            edges++;
+            return this;
+        }
+
+        /**
+         * @return atoms of the intervals on every labelled edge
+         */
+        Alphabet alphabet() {
+            char[] bounds = new char[2 * edges];
+            int size = 0;
+            for (int i = 0; i < edges; i++) {
+                if (!epsilon[i]) {
+                    bounds[size++] = lo[i];
+                    bounds[size++] = hi[i];
+                }
+            }
+            return Alphabet.of(bounds, size);
+        }
+
+        Fragment parseTree(ParseTree tree) {
+            return tree.fold((component, left, right) -> {
+                switch (component.getType()) {
+                    case CHAR:
+                    case CLASS:
+                        return parseClass(component.chars());
+                    case CONCAT:
+                        return parseConcat(left, right);
+                    case OR:
+                        return parseOr(left, right);
+                    case QUESTION:
+                        return parseQuestion(left);
+                    case STAR:
+                        return parseStar(left);
+                    default:
+                        throw new IllegalStateException();
+                }
+            });
+        }
+
+        Fragment parseClass(CharClass chars) {
+            int initial = newState();
+            int end = newState();
+            for (int i = 0; i < chars.getIntervalCount(); i++) {
+                addEdge(initial, end, chars.lo(i), chars.hi(i));
+            }
+            return new Fragment(initial, end);
+        }
+
+        Fragment parseConcat(Fragment left, Fragment right) {
+            addEpsilon(left.end, right.initial);
+            return new Fragment(left.initial, right.end);
+        }
+
+        Fragment parseOr(Fragment left, Fragment right) {
+            int initial = newState();
+            int end = newState();
+            addEpsilon(initial, left.initial);
+            addEpsilon(initial, right.initial);
+            addEpsilon(left.end, end);
+            addEpsilon(right.end, end);
+            return new Fragment(initial, end);
+        }
+
+        Fragment parseQuestion(Fragment single) {
+            addEpsilon(single.initial, single.end);
+            return single;
+        }
+
+        Fragment parseStar(Fragment single) {
+            int initial = newState();
+            int end = newState();
+            addEpsilon(initial, single.initial);
+            addEpsilon(initial, end);
+            addEpsilon(single.end, single.initial);
+            addEpsilon(single.end, end);
+            return new Fragment(initial, end);
+        }
+
+        NFA build(Fragment fragment) {
+            return new NFA(this, fragment.initial, new int[]{fragment.end});
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.nhomble.regex.parser;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Optional;
+
+import static io.github.nhomble.regex.parser.TaggedNFA.*;
+
+/**
+ * Tagged DFA for the patterns where, whatever the input, at most one thread of the {@link TaggedNFA} is still alive
+ * after every char, e.g. {@code (a*)b(c|d)} but not {@code (a*)(a*)}. Every state is then a single position in the
+ * program, and every transition carries the set of slots the one path to the next char passes through, so matching is
+ * a table lookup per char and a write per tag, with no thread lists at all.
+ */
+public class OnePassDFA {
+
+    // the slot masks are longs
+    static final int MAX_SLOTS = Long.SIZE;
+    static final int OFF_STATE = -1;
+
+    private final int[] table;
+    private final long[] tags;
+    private final Alphabet alphabet;
+    private final int width;
+    private final boolean[] finals;
+    private final long[] finalTags;
+    private final int slotCount;
+
+    private OnePassDFA(int[] table, long[] tags, Alphabet alphabet, boolean[] finals, long[] finalTags, int slotCount) {
+        this.table = table;
+        this.tags = tags;
+        this.alphabet = alphabet;
+        this.width = alphabet.size();
+        this.finals = finals;
+        this.finalTags = finalTags;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * @param nfa
+     * @return empty if some input leaves more than one thread alive, or there are too many slots to fit a mask
+     */
+    static Optional<OnePassDFA> build(TaggedNFA nfa) {
+        int slotCount = nfa.getSlotCount();
+        if (slotCount > MAX_SLOTS) {
+            return Optional.empty();
+        }
+        int instructions = nfa.getInstructionCount();
+        Alphabet alphabet = Alphabet.of(nfa.getClasses());
+        int width = alphabet.size();
+
+        // a state is the instruction a thread resumes at: the start, or the one after a CHAR
+        int[] stateOf = new int[instructions];
+        Arrays.fill(stateOf, -1);
+        int[] origins = new int[instructions];
+        int states = 0;
+        origins[states] = nfa.getStart();
+        stateOf[nfa.getStart()] = states++;
+
+        int[] table = new int[Math.max(1, instructions * width)];
+        Arrays.fill(table, OFF_STATE);
+        long[] tags = new long[table.length];
+        boolean[] finals = new boolean[instructions];
+        long[] finalTags = new long[instructions];
+
+        SparseSet visited = new SparseSet(instructions);
+        Deque<long[]> stack = new ArrayDeque<>();
+        for (int state = 0; state < states; state++) {
+            visited.clear();
+            stack.push(new long[]{origins[state], 0L});
+            while (!stack.isEmpty()) {
+                long[] job = stack.pop();
+                int pc = (int) job[0];
+                long mask = job[1];
+                // a lower priority path to the same instruction is dropped, as in the simulation
+                if (!visited.add(pc)) {
+                    continue;
+                }
+                switch (nfa.op(pc)) {
+                    case NOP:
+                        stack.push(new long[]{nfa.out(pc), mask});
+                        break;
+                    case SPLIT:
+                        stack.push(new long[]{nfa.alt(pc), mask});
+                        stack.push(new long[]{nfa.out(pc), mask});
+                        break;
+                    case SAVE:
+                        stack.push(new long[]{nfa.out(pc), mask | 1L << nfa.arg(pc)});
+                        break;
+                    case MATCH:
+                        finals[state] = true;
+                        finalTags[state] = mask;
+                        break;
+                    case CHAR: {
+                        int next = nfa.out(pc);
+                        if (stateOf[next] < 0) {
+                            origins[states] = next;
+                            stateOf[next] = states++;
+                        }
+                        CharClass chars = nfa.charClass(pc);
+                        for (int i = 0; i < chars.getIntervalCount(); i++) {
+                            int last = alphabet.intervalOf(chars.hi(i));
+                            for (int column = alphabet.intervalOf(chars.lo(i)); column <= last; column++) {
+                                int cell = state * width + column;
+                                if (table[cell] != OFF_STATE) {
+                                    // two threads would survive this char
+                                    return Optional.empty();
+                                }
+                                table[cell] = stateOf[next];
+                                tags[cell] = mask;
+                            }
+                        }
+                        break;
+                    }
+                    default:
+                        throw new IllegalStateException("unknown instruction " + nfa.op(pc));
+                }
+            }
+        }
+        return Optional.of(new OnePassDFA(
+                Arrays.copyOf(table, Math.max(1, states * width)),
+                Arrays.copyOf(tags, Math.max(1, states * width)),
+                alphabet,
+                Arrays.copyOf(finals, states),
+                Arrays.copyOf(finalTags, states),
+                slotCount
+        ));
+    }
+
+    public int getStateCount() {
+        return finals.length;
+    }
+
+    /**
+     * Same contract as {@link TaggedNFA#match(CharSequence, int[])}
+     *
+     * @param input
+     * @param slots
+     * @return
+     */
+    public boolean match(CharSequence input, int[] slots) {
+        Arrays.fill(slots, 0, slotCount, -1);
+        int state = 0;
+        int length = input.length();
+        for (int i = 0; i < length; i++) {
+            int column = alphabet.columnOf(input.charAt(i));
+            if (column < 0) {
+                return fail(slots);
+            }
+            int cell = state * width + column;
+            state = table[cell];
+            if (state == OFF_STATE) {
+                return fail(slots);
+            }
+            write(tags[cell], i, slots);
+        }
+        if (!finals[state]) {
+            return fail(slots);
+        }
+        write(finalTags[state], length, slots);
+        return true;
+    }
+
+    private static void write(long mask, int position, int[] slots) {
+        while (mask != 0) {
+            slots[Long.numberOfTrailingZeros(mask)] = position;
+            mask &= mask - 1;
+        }
+    }
+
+    private boolean fail(int[] slots) {
+        Arrays.fill(slots, 0, slotCount, -1);
+        return false;
+    }
+}
@@ -0,0 +1,370 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+import io.github.nhomble.regex.parser.exceptions.MissingSymbolException;
+import io.github.nhomble.regex.parser.exceptions.RegexParseException;
+import lombok.Getter;
+
+
+import java.util.*;
+
+import static io.github.nhomble.regex.parser.ParseTree.Type.*;
+
+/**
+ * Creates another representation of the string regex into a tree for later transformations
+ */
+@Getter
+public class ParseTree {
+
+    private final ParseComponent component;
+    // the node each capturing group wraps, group 1 first
+    private final List<ParseComponent> groups;
+
+    ParseTree(ParseComponent component) {
+        this(component, Collections.emptyList());
+    }
+
+    ParseTree(ParseComponent component, List<ParseComponent> groups) {
+        this.component = component;
+        this.groups = Collections.unmodifiableList(groups);
+    }
+
+    /**
+     * Every parenthesized sub expression is a capturing group, numbered by its {@code (} from left to right starting at 1
+     *
+     * @return
+     */
+    public int getGroupCount() {
+        return groups.size();
+    }
+
+    @Override
+    public String toString() {
+        return component.toString();
+    }
+
+    /**
+     * Post order reduction of the tree. It is done with explicit stacks rather than recursion so that the depth of the
+     * tree, which grows with the length of the pattern, can't overflow the call stack.
+     *
+     * @param folder
+     * @param <T>
+     * @return
+     */
+    <T> T fold(Folder<T> folder) {
+        Deque<ParseComponent> pending = new ArrayDeque<>();
+        Deque<ParseComponent> postOrder = new ArrayDeque<>();
+        pending.push(component);
+        while (!pending.isEmpty()) {
+            ParseComponent curr = pending.pop();
+            postOrder.push(curr);
+            if (curr.left != null) {
+                pending.push(curr.left);
+            }
+            if (curr.right != null) {
+                pending.push(curr.right);
+            }
+        }
+
+        List<T> results = new ArrayList<>();
+        while (!postOrder.isEmpty()) {
+            ParseComponent curr = postOrder.pop();
+            T right = curr.right != null ? results.remove(results.size() - 1) : null;
+            T left = curr.left != null ? results.remove(results.size() - 1) : null;
+            results.add(folder.fold(curr, left, right));
+        }
+        return results.get(0);
+    }
+
+    /**
+     * @return tree for the reversed language, every concatenation with its operands swapped. Groups are not kept.
+     */
+    public ParseTree reverse() {
+        return new ParseTree(fold((component, left, right) -> {
+            switch (component.getType()) {
+                case CHAR:
+                case CLASS:
+                    return component;
+                case CONCAT:
+                    return new ParseComponent(right, left, CONCAT);
+                default:
+                    return new ParseComponent(left, right, component.getType(), component.getValue());
+            }
+        }));
+    }
+
+    interface Folder<T> {
+        T fold(ParseComponent component, T left, T right);
+    }
+
+    @Getter
+    static class ParseComponent {
+        private final ParseComponent left, right;
+        private final Type type;
+        private final String value;
+        // only for CLASS
+        private final CharClass charClass;
+
+        protected ParseComponent(ParseComponent left, ParseComponent right, Type type, String value) {
+            this.left = left;
+            this.right = right;
+            this.type = type;
+            this.value = value;
+            this.charClass = null;
+        }
+
+        protected ParseComponent(String value) {
+            this(null, null, CHAR, value);
+        }
+
+        protected ParseComponent(CharClass charClass) {
+            this.left = null;
+            this.right = null;
+            this.type = CLASS;
+            this.value = null;
+            this.charClass = charClass;
+        }
+
+        /**
+         * @return the chars a CHAR or CLASS leaf matches
+         */
+        CharClass chars() {
+            return type == CLASS ? charClass : CharClass.of(value.charAt(0));
+        }
+
+        protected ParseComponent(ParseComponent parseComponent, Type type) {
+            this(parseComponent, null, type, null);
+        }
+
+        protected ParseComponent(ParseComponent left, ParseComponent right, Type type) {
+            this(left, right, type, null);
+        }
+
+        @Override
+        public String toString() {
+            String c = type == CHAR ? value : type == CLASS ? charClass.toString() : type.character;
+            return Optional.ofNullable(left).map(l -> "(" + l.toString() + ")").orElse("")
+                    + c
+                    + Optional.ofNullable(right).map(r -> "(" + r.toString() + ")").orElse("");
+        }
+    }
+
+    enum Type {
+        CHAR(null),
+        CLASS(null),
+        STAR("*"),
+        QUESTION("?"),
+        CONCAT("."),
+        OR("|");
+
+        String character;
+
+        Type(String character) {
+            this.character = character;
+        }
+    }
+
+    /**
+     * Parse in a single pass over the chars with explicit operand and operator stacks, so neither the length nor the
+     * nesting of the pattern is limited by the call stack. Concatenation is implicit between two atoms; it binds tighter
+     * than {@code |} and looser than the postfix {@code *} and {@code ?}. Both binary operators group to the right.
+     * <p>
+     * An atom is an alphanumeric char, {@code .} for any char but {@code \n}, or a class such as {@code [a-z0-9_]} or
+     * {@code [^,]}: any chars other than {@code ]}, with {@code a-z} a range unless the {@code -} comes first or last, and
+     * a leading {@code ^} negating the whole class.
+     *
+     * @param regex
+     * @return
+     * @throws RegexParseException    with the index of the offending char
+     * @throws MissingSymbolException with the index of a {@code (} or {@code [} that is never closed
+     */
+    public static ParseTree parse(String regex) {
+        Preconditions.checkNotNull(regex);
+        RegexMetrics metrics = Instrumentation.get();
+        long start = metrics.now();
+        Parser parser = new Parser(regex);
+        ParseTree tree = new ParseTree(parser.parse(), parser.groups);
+        metrics.phase(RegexMetrics.CompilePhase.PARSE_TREE, start);
+        return tree;
+    }
+
+    private static class Parser {
+        private static final char CONCAT_OP = '.';
+        // values of CHAR nodes, shared rather than allocated per char
+        private static final String[] ASCII = new String[128];
+
+        static {
+            for (char c = 0; c < ASCII.length; c++) {
+                ASCII[c] = String.valueOf(c);
+            }
+        }
+
+        private final String regex;
+        private ParseComponent[] operands = new ParseComponent[16];
+        private int operandCount;
+        // '(', '|' or CONCAT_OP, and for '(' where it is and which group it opens
+        private char[] operators = new char[16];
+        private int[] operatorPositions = new int[16];
+        private int[] operatorGroups = new int[16];
+        private int operatorCount;
+        private final List<ParseComponent> groups = new ArrayList<>();
+
+        Parser(String regex) {
+            this.regex = regex;
+        }
+
+        ParseComponent parse() {
+            // whether the last thing read ends an operand, i.e. an atom, ')' or a postfix operator
+            boolean afterOperand = false;
+            boolean afterPostfix = false;
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                switch (c) {
+                    case '(':
+                        if (afterOperand) {
+                            pushOperator(CONCAT_OP, i);
+                        }
+                        pushOperator('(', i);
+                        afterOperand = false;
+                        break;
+                    case ')':
+                        expectOperand(afterOperand, c, i);
+                        while (operatorCount > 0 && operators[operatorCount - 1] != '(') {
+                            reduce();
+                        }
+                        if (operatorCount == 0) {
+                            throw new RegexParseException("Unbalanced ')'", i);
+                        }
+                        groups.set(operatorGroups[--operatorCount], operands[operandCount - 1]);
+                        afterOperand = true;
+                        break;
+                    case '*':
+                    case '?':
+                        if (!afterOperand || afterPostfix) {
+                            throw new RegexParseException("Nothing to repeat with '" + c + "'", i);
+                        }
+                        operands[operandCount - 1] = new ParseComponent(operands[operandCount - 1], c == '*' ? STAR : QUESTION);
+                        afterPostfix = true;
+                        continue;
+                    case '.':
+                    case '[':
+                        if (afterOperand) {
+                            pushOperator(CONCAT_OP, i);
+                        }
+                        if (c == '.') {
+                            pushOperand(new ParseComponent(CharClass.ANY_BUT_NEWLINE));
+                        } else {
+                            i = parseClass(i);
+                        }
+                        afterOperand = true;
+                        break;
+                    case '|':
+                        expectOperand(afterOperand, c, i);
+                        // concatenation binds tighter, a run of '|' stays on the stack to group to the right
+                        while (operatorCount > 0 && operators[operatorCount - 1] == CONCAT_OP) {
+                            reduce();
+                        }
+                        pushOperator('|', i);
+                        afterOperand = false;
+                        break;
+                    default:
+                        if (!Character.isLetterOrDigit(c)) {
+                            throw new RegexParseException("Expected alphanum character, but got=" + c, i);
+                        }
+                        if (afterOperand) {
+                            pushOperator(CONCAT_OP, i);
+                        }
+                        pushOperand(new ParseComponent(c < ASCII.length ? ASCII[c] : String.valueOf(c)));
+                        afterOperand = true;
+                        break;
+                }
+                afterPostfix = false;
+            }
+            expectOperand(afterOperand, null, regex.length());
+            while (operatorCount > 0) {
+                if (operators[operatorCount - 1] == '(') {
+                    throw new MissingSymbolException(")", operatorPositions[operatorCount - 1]);
+                }
+                reduce();
+            }
+            return operands[0];
+        }
+
+        /**
+         * @param open index of the {@code [}
+         * @return index of the closing {@code ]}
+         */
+        private int parseClass(int open) {
+            int i = open + 1;
+            boolean negated = i < regex.length() && regex.charAt(i) == '^';
+            if (negated) {
+                i++;
+            }
+            int first = i;
+            char[] bounds = new char[8];
+            int size = 0;
+            for (; i < regex.length() && regex.charAt(i) != ']'; i++) {
+                char lo = regex.charAt(i);
+                char hi = lo;
+                // a '-' right before the ']' is a plain char
+                if (i + 2 < regex.length() && regex.charAt(i + 1) == '-' && regex.charAt(i + 2) != ']') {
+                    hi = regex.charAt(i + 2);
+                    if (hi < lo) {
+                        throw new RegexParseException("Range out of order " + lo + "-" + hi, i);
+                    }
+                    i += 2;
+                }
+                if (size == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, size * 2);
+                }
+                bounds[size++] = lo;
+                bounds[size++] = hi;
+            }
+            if (i == regex.length()) {
+                throw new MissingSymbolException("]", open);
+            }
+            if (i == first) {
+                throw new RegexParseException("Empty character class", i);
+            }
+            CharClass chars = CharClass.of(Arrays.copyOf(bounds, size));
+            pushOperand(new ParseComponent(negated ? chars.negate() : chars));
+            return i;
+        }
+
+        private void expectOperand(boolean afterOperand, Character got, int position) {
+            if (!afterOperand) {
+                throw new RegexParseException("Expected alphanum character, but got=" + got, position);
+            }
+        }
+
+        private void reduce() {
+            char operator = operators[--operatorCount];
+            ParseComponent right = operands[--operandCount];
+            ParseComponent left = operands[operandCount - 1];
+            operands[operandCount - 1] = new ParseComponent(left, right, operator == '|' ? OR : CONCAT);
+        }
+
+        private void pushOperand(ParseComponent operand) {
+            if (operandCount == operands.length) {
+                operands = Arrays.copyOf(operands, operandCount * 2);
+            }
+            operands[operandCount++] = operand;
+        }
+
+        private void pushOperator(char operator, int position) {
+            if (operatorCount == operators.length) {
+                operators = Arrays.copyOf(operators, operatorCount * 2);
+                operatorPositions = Arrays.copyOf(operatorPositions, operatorCount * 2);
+                operatorGroups = Arrays.copyOf(operatorGroups, operatorCount * 2);
+            }
+            if (operator == '(') {
+                operatorGroups[operatorCount] = groups.size();
+                groups.add(null);
+            }
+            operatorPositions[operatorCount] = position;
+            operators[operatorCount++] = operator;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import io.github.nhomble.regex.matcher.BitParallelMatcher;
+import io.github.nhomble.regex.matcher.DFAMatcher;
+import io.github.nhomble.regex.matcher.LazyDFAMatcher;
+import io.github.nhomble.regex.matcher.LiteralMatcher;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks at the {@link ParseTree} of every regex and picks the backend that should match it fastest:
+ * <ol>
+ *     <li>a regex with no operators is a literal, compared with {@link String#equals}</li>
+ *     <li>a regex with fewer positions than a {@code long} has bits is simulated by {@link BitParallelNFA} in a single
+ *     word, which is built in one pass over the tree</li>
+ *     <li>otherwise subset construction is tried with a budget of states, and the {@link DFA} is used if it fits</li>
+ *     <li>a regex whose DFA would blow past the budget goes to a {@link LazyDFA}, which bounds its own memory</li>
+ * </ol>
+ * {@link #explain(String)} tells which one was picked and why.
+ */
+public class PlanningRegexParser implements RegexParser {
+
+    public static final int DEFAULT_MAX_DFA_STATES = 1024;
+
+    public enum Backend {
+        LITERAL, BIT_PARALLEL, DFA, LAZY_DFA
+    }
+
+    private final int maxDfaStates;
+    private final int lazyDfaMaxStates;
+
+    public PlanningRegexParser() {
+        this(DEFAULT_MAX_DFA_STATES, LazyDFA.DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @param maxDfaStates     most states subset construction may find before the regex is handed to a lazy DFA
+     * @param lazyDfaMaxStates cache size of the lazy DFAs
+     */
+    public PlanningRegexParser(int maxDfaStates, int lazyDfaMaxStates) {
+        Preconditions.checkArgument(maxDfaStates > 0);
+        Preconditions.checkArgument(lazyDfaMaxStates >= 2);
+        this.maxDfaStates = maxDfaStates;
+        this.lazyDfaMaxStates = lazyDfaMaxStates;
+    }
+
+    /**
+     * @return most states subset construction may find before the regex is handed to a lazy DFA
+     */
+    public int getMaxDfaStates() {
+        return maxDfaStates;
+    }
+
+    @Override
+    public RegexMatcher parse(String regex) {
+        return explain(regex).matcher;
+    }
+
+    /**
+     * Plan, and compile, the regex
+     *
+     * @param regex
+     * @return the backend picked, the reasons for it and the matcher
+     */
+    public Plan explain(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        ParseTree tree = ParseTree.parse(regex);
+        List<String> reasons = new ArrayList<>();
+
+        String literal = literal(tree);
+        if (literal != null) {
+            reasons.add("no operators, so it only matches \"" + literal + "\"");
+            return new Plan(regex, Backend.LITERAL, reasons, new LiteralMatcher(literal));
+        }
+
+        int positions = positions(tree);
+        reasons.add(positions + " positions");
+        // position 0 is the start
+        if (positions < BitParallelNFA.WORD_POSITIONS) {
+            reasons.add("the position automaton fits in one " + BitParallelNFA.WORD_POSITIONS + " bit word");
+            return new Plan(regex, Backend.BIT_PARALLEL, reasons, new BitParallelMatcher(BitParallelNFA.parseTree(tree)));
+        }
+        reasons.add("too many positions for one " + BitParallelNFA.WORD_POSITIONS + " bit word");
+
+        NFA nfa = NFA.parseTree(tree);
+        Optional<DFA> dfa = DFA.parse(nfa, maxDfaStates);
+        if (dfa.isPresent()) {
+            reasons.add("subset construction found " + dfa.get().getConstructedStateCount()
+                    + " states, minimized to " + dfa.get().getStateCount());
+            return new Plan(regex, Backend.DFA, reasons, new DFAMatcher(dfa.get()));
+        }
+        reasons.add("subset construction gave up past " + maxDfaStates + " states");
+        return new Plan(regex, Backend.LAZY_DFA, reasons, new LazyDFAMatcher(new LazyDFA(nfa, lazyDfaMaxStates)));
+    }
+
+    /**
+     * @return the string matched, or null if there are any operators
+     */
+    private static String literal(ParseTree tree) {
+        return tree.fold((component, left, right) -> {
+            switch (component.getType()) {
+                case CHAR:
+                    return component.getValue();
+                case CONCAT:
+                    return left == null || right == null ? null : left + right;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private static int positions(ParseTree tree) {
+        return tree.<Integer>fold((component, left, right) ->
+                (component.getType() == ParseTree.Type.CHAR || component.getType() == ParseTree.Type.CLASS ? 1 : 0)
+                        + (left == null ? 0 : left) + (right == null ? 0 : right));
+    }
+
+    public static class Plan {
+        private final String regex;
+        private final Backend backend;
+        private final List<String> reasons;
+        private final RegexMatcher matcher;
+
+        Plan(String regex, Backend backend, List<String> reasons, RegexMatcher matcher) {
+            this.regex = regex;
+            this.backend = backend;
+            this.reasons = ImmutableList.copyOf(reasons);
+            this.matcher = matcher;
+        }
+
+        public String getRegex() {
+            return regex;
+        }
+
+        public Backend getBackend() {
+            return backend;
+        }
+
+        public List<String> getReasons() {
+            return reasons;
+        }
+
+        public RegexMatcher getMatcher() {
+            return matcher;
+        }
+
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(Plan.class)
+                    .add("regex", regex)
+                    .add("backend", backend)
+                    .add("reasons", String.join(", ", reasons))
+                    .toString();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package io.github.nhomble.regex.parser;
+
+import java.util.Arrays;
+
+/**
+ * Briggs-Torczon sparse set over {@code [0, capacity)}: constant time add, contains and clear without boxing
+ */
+final class SparseSet {
+
+    private final int[] dense;
+    private final int[] sparse;
+    private int size;
+
+    SparseSet(int capacity) {
+        dense = new int[capacity];
+        sparse = new int[capacity];
+    }
+
+    boolean contains(int value) {
+        int i = sparse[value];
+        return i < size && dense[i] == value;
+    }
+
+    boolean add(int value) {
+        if (contains(value)) {
+            return false;
+        }
+        dense[size] = value;
+        sparse[value] = size;
+        size++;
+        return true;
+    }
+
+    void addAll(int[] values) {
+        for (int value : values) {
+            add(value);
+        }
+    }
+
+    int get(int i) {
+        return dense[i];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the members in ascending order, which is the canonical key for a set of NFA states
+     */
+    int[] toSortedArray() {
+        int[] ret = Arrays.copyOf(dense, size);
+        Arrays.sort(ret);
+        return ret;
+    }
+}
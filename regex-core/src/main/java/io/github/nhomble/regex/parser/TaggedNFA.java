@@ -0,0 +1,376 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Thompson automaton whose epsilon edges are ordered by preference and carry tags, the instructions to save the current
+ * input position into a capture slot. Group {@code g} starts at slot {@code 2g} and ends at slot {@code 2g + 1}, group 0
+ * being the whole match.
+ * <p>
+ * Matching simulates every thread at once, Pike style, so the input is scanned once and never backtracked over. Threads
+ * are kept in preference order and a thread reaching a state another thread already holds is dropped, so the captures
+ * reported are those of the first path a backtracking matcher would have accepted: alternatives left to right,
+ * {@code *} and {@code ?} greedy, and the last iteration of a repeated group. Patterns where at most one thread is ever
+ * alive are matched by a {@link OnePassDFA} instead, see {@link #getOnePass()}.
+ */
+public class TaggedNFA {
+
+    static final int CHAR = 0;
+    static final int SPLIT = 1;
+    static final int SAVE = 2;
+    static final int NOP = 3;
+    static final int MATCH = 4;
+
+    private final int[] op;
+    // next instruction, and for SPLIT the less preferred one in alt
+    private final int[] out;
+    private final int[] alt;
+    // the index of the class a CHAR reads, the slot of a SAVE
+    private final int[] arg;
+    private final CharClass[] classes;
+    private final int start;
+    private final int groupCount;
+    private final OnePassDFA onePass;
+    private final ThreadLocal<Threads> scratch;
+
+    private TaggedNFA(Builder builder, int start, int groupCount) {
+        this.op = Arrays.copyOf(builder.op, builder.size);
+        this.out = Arrays.copyOf(builder.out, builder.size);
+        this.alt = Arrays.copyOf(builder.alt, builder.size);
+        this.arg = Arrays.copyOf(builder.arg, builder.size);
+        this.classes = builder.classes.toArray(new CharClass[0]);
+        this.start = start;
+        this.groupCount = groupCount;
+        this.onePass = OnePassDFA.build(this).orElse(null);
+        this.scratch = ThreadLocal.withInitial(() -> new Threads(op.length, getSlotCount()));
+    }
+
+    public static TaggedNFA parse(String regex) {
+        Preconditions.checkArgument(regex != null && regex.length() > 0);
+        return parseTree(ParseTree.parse(regex));
+    }
+
+    public static TaggedNFA parseTree(ParseTree tree) {
+        Preconditions.checkNotNull(tree);
+        // groups wrapping the same node are applied innermost, i.e. highest numbered, first
+        Map<ParseTree.ParseComponent, List<Integer>> groupsOf = new IdentityHashMap<>();
+        for (int g = tree.getGroupCount(); g >= 1; g--) {
+            groupsOf.computeIfAbsent(tree.getGroups().get(g - 1), c -> new ArrayList<>()).add(g);
+        }
+
+        Builder builder = new Builder();
+        Fragment body = tree.fold((component, left, right) -> {
+            Fragment fragment = builder.fragment(component, left, right);
+            for (int g : groupsOf.getOrDefault(component, Collections.emptyList())) {
+                fragment = builder.save(2 * g, fragment, 2 * g + 1);
+            }
+            return fragment;
+        });
+        Fragment whole = builder.save(0, body, 1);
+        builder.patch(whole.end, builder.add(MATCH, -1, -1, 0));
+        return new TaggedNFA(builder, whole.initial, tree.getGroupCount());
+    }
+
+    public int getGroupCount() {
+        return groupCount;
+    }
+
+    /**
+     * @return length of the array the match methods need, two slots per group and two for the whole match
+     */
+    public int getSlotCount() {
+        return 2 * (groupCount + 1);
+    }
+
+    /**
+     * @return deterministic version of this automaton, if the pattern allows one
+     */
+    public Optional<OnePassDFA> getOnePass() {
+        return Optional.ofNullable(onePass);
+    }
+
+    public int getInstructionCount() {
+        return op.length;
+    }
+
+    int getStart() {
+        return start;
+    }
+
+    int op(int pc) {
+        return op[pc];
+    }
+
+    int out(int pc) {
+        return out[pc];
+    }
+
+    int alt(int pc) {
+        return alt[pc];
+    }
+
+    int arg(int pc) {
+        return arg[pc];
+    }
+
+    CharClass charClass(int pc) {
+        return classes[arg[pc]];
+    }
+
+    List<CharClass> getClasses() {
+        return Arrays.asList(classes);
+    }
+
+    /**
+     * Match the whole input, filling in the offsets of every group
+     *
+     * @param input
+     * @param slots at least {@link #getSlotCount()} long. On a match it holds the start and end of every group, -1 for a
+     *              group that did not take part. Without a match it is all -1.
+     * @return
+     */
+    public boolean match(CharSequence input, int[] slots) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkArgument(slots.length >= getSlotCount(), "need %s slots", getSlotCount());
+        if (onePass != null) {
+            return onePass.match(input, slots);
+        }
+        return simulate(input, slots);
+    }
+
+    /**
+     * Pike simulation, used directly only when there is no {@link OnePassDFA}
+     */
+    boolean simulate(CharSequence input, int[] slots) {
+        Threads threads = scratch.get();
+        int slotCount = getSlotCount();
+        ThreadList curr = threads.curr;
+        ThreadList next = threads.next;
+        curr.clear();
+        int[] working = threads.working;
+        Arrays.fill(working, -1);
+        addThread(curr, start, 0, working, threads);
+
+        int length = input.length();
+        for (int i = 0; i < length && curr.size > 0; i++) {
+            char c = input.charAt(i);
+            next.clear();
+            for (int t = 0; t < curr.size; t++) {
+                int pc = curr.pcs[t];
+                // a thread at MATCH before the end of the input is no whole match
+                if (op[pc] == CHAR && classes[arg[pc]].contains(c)) {
+                    System.arraycopy(curr.slots, t * slotCount, working, 0, slotCount);
+                    addThread(next, out[pc], i + 1, working, threads);
+                }
+            }
+            ThreadList swap = curr;
+            curr = next;
+            next = swap;
+        }
+        threads.curr = curr;
+        threads.next = next;
+
+        for (int t = 0; t < curr.size; t++) {
+            if (op[curr.pcs[t]] == MATCH) {
+                System.arraycopy(curr.slots, t * slotCount, slots, 0, slotCount);
+                return true;
+            }
+        }
+        Arrays.fill(slots, 0, slotCount, -1);
+        return false;
+    }
+
+    /**
+     * Follow the epsilon edges out of pc in preference order, with an explicit stack so long patterns can't overflow the
+     * call stack. Saves are undone once everything after them has been explored.
+     */
+    private void addThread(ThreadList list, int pc, int position, int[] working, Threads threads) {
+        int slotCount = getSlotCount();
+        int[] stack = threads.stack;
+        int[] restore = threads.restore;
+        int top = 0;
+        stack[top++] = pc;
+        while (top > 0) {
+            int job = stack[--top];
+            if (job < 0) {
+                // undo a save
+                working[-job - 1] = restore[top];
+                continue;
+            }
+            if (list.contains(job)) {
+                continue;
+            }
+            switch (op[job]) {
+                case NOP:
+                    list.mark(job);
+                    stack[top++] = out[job];
+                    break;
+                case SPLIT:
+                    list.mark(job);
+                    stack[top++] = alt[job];
+                    stack[top++] = out[job];
+                    break;
+                case SAVE:
+                    list.mark(job);
+                    restore[top] = working[arg[job]];
+                    stack[top++] = -arg[job] - 1;
+                    working[arg[job]] = position;
+                    stack[top++] = out[job];
+                    break;
+                default:
+                    list.add(job, working, slotCount);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Per thread scratch: two thread lists swapped every char, the working slots and the epsilon stack
+     */
+    private static class Threads {
+        private ThreadList curr;
+        private ThreadList next;
+        private final int[] working;
+        private final int[] stack;
+        private final int[] restore;
+
+        Threads(int instructions, int slotCount) {
+            this.curr = new ThreadList(instructions, slotCount);
+            this.next = new ThreadList(instructions, slotCount);
+            this.working = new int[slotCount];
+            // every instruction is pushed at most once, plus one undo per SAVE
+            this.stack = new int[2 * instructions + 1];
+            this.restore = new int[2 * instructions + 1];
+        }
+    }
+
+    /**
+     * Threads in preference order, at most one per instruction, with a sparse set of the instructions visited while
+     * building it
+     */
+    private static class ThreadList {
+        private final SparseSet visited;
+        private final int[] pcs;
+        private final int[] slots;
+        private int size;
+
+        ThreadList(int instructions, int slotCount) {
+            this.visited = new SparseSet(instructions);
+            this.pcs = new int[instructions];
+            this.slots = new int[instructions * slotCount];
+        }
+
+        void clear() {
+            visited.clear();
+            size = 0;
+        }
+
+        boolean contains(int pc) {
+            return visited.contains(pc);
+        }
+
+        void mark(int pc) {
+            visited.add(pc);
+        }
+
+        void add(int pc, int[] working, int slotCount) {
+            visited.add(pc);
+            pcs[size] = pc;
+            System.arraycopy(working, 0, slots, size * slotCount, slotCount);
+            size++;
+        }
+    }
+
+    /**
+     * Entry and exit of a partially built program, the exit being a NOP whose next instruction is patched in later
+     */
+    private static class Fragment {
+        private final int initial;
+        private final int end;
+
+        Fragment(int initial, int end) {
+            this.initial = initial;
+            this.end = end;
+        }
+    }
+
+    private static class Builder {
+        private int size;
+        private int[] op = new int[16];
+        private int[] out = new int[16];
+        private int[] alt = new int[16];
+        private int[] arg = new int[16];
+        private final List<CharClass> classes = new ArrayList<>();
+
+        int add(int op, int out, int alt, int arg) {
+            if (size == this.op.length) {
+                this.op = Arrays.copyOf(this.op, size * 2);
+                this.out = Arrays.copyOf(this.out, size * 2);
+                this.alt = Arrays.copyOf(this.alt, size * 2);
+                this.arg = Arrays.copyOf(this.arg, size * 2);
+            }
+            this.op[size] = op;
+            this.out[size] = out;
+            this.alt[size] = alt;
+            this.arg[size] = arg;
+            return size++;
+        }
+
+        /**
+         * @param end a NOP with no next instruction yet
+         */
+        void patch(int end, int to) {
+            out[end] = to;
+        }
+
+        Fragment fragment(ParseTree.ParseComponent component, Fragment left, Fragment right) {
+            switch (component.getType()) {
+                case CHAR:
+                case CLASS: {
+                    int end = add(NOP, -1, -1, 0);
+                    classes.add(component.chars());
+                    return new Fragment(add(CHAR, end, -1, classes.size() - 1), end);
+                }
+                case CONCAT:
+                    patch(left.end, right.initial);
+                    return new Fragment(left.initial, right.end);
+                case OR: {
+                    int end = add(NOP, -1, -1, 0);
+                    patch(left.end, end);
+                    patch(right.end, end);
+                    return new Fragment(add(SPLIT, left.initial, right.initial, 0), end);
+                }
+                case STAR: {
+                    int end = add(NOP, -1, -1, 0);
+                    int loop = add(SPLIT, left.initial, end, 0);
+                    patch(left.end, loop);
+                    return new Fragment(loop, end);
+                }
+                case QUESTION: {
+                    int end = add(NOP, -1, -1, 0);
+                    patch(left.end, end);
+                    return new Fragment(add(SPLIT, left.initial, end, 0), end);
+                }
+                default:
+                    throw new IllegalStateException("unknown component " + component.getType());
+            }
+        }
+
+        /**
+         * Wrap the fragment in saves of the current position into the given slots
+         */
+        Fragment save(int startSlot, Fragment fragment, int endSlot) {
+            int end = add(NOP, -1, -1, 0);
+            patch(fragment.end, add(SAVE, end, -1, endSlot));
+            return new Fragment(add(SAVE, fragment.initial, -1, startSlot), end);
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.base.Preconditions;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * A {@link DFA} over the UTF-8 bytes of its input rather than its chars, so bytes from a file, socket or mapping are
+ * matched as they are with no decoding. Byte values that no state tells apart, such as every byte a pattern never
+ * mentions or the continuation bytes of a range, share an equivalence class: a 256 entry map shared by all states gives
+ * the class of a byte, and every state has a row with one transition per class.
+ * <p>
+ * Each char transition of the source DFA becomes the byte sequence encoding that char: ASCII stays a single edge and a
+ * multi-byte char goes through intermediate states, one per prefix, which chars sharing a lead byte share. The result is
+ * minimized again so that intermediate states with the same continuations merge. A supplementary code point, which the
+ * source DFA reads as a high surrogate and then a low one, becomes the four bytes encoding it and leads to the state
+ * the pair of surrogates does. Only well formed UTF-8 has transitions: malformed or overlong sequences, encoded
+ * surrogates and bytes of chars the pattern doesn't mention all fall off the table. A range of chars like {@code [^a]}
+ * is laid out as a few byte ranges rather than char by char.
+ */
+public class Utf8DFA {
+
+    public static final int WIDTH = 256;
+
+    private final int[] table;
+    private final int width;
+    // class, and so column, of every byte value
+    private final int[] classes;
+    private final int start;
+    private final DFA dfa;
+
+    private Utf8DFA(DFA dfa) {
+        this.dfa = dfa;
+        this.table = dfa.getTable();
+        this.width = dfa.getAlphabetSize();
+        this.classes = new int[WIDTH];
+        for (int b = 0; b < WIDTH; b++) {
+            classes[b] = dfa.getAlphabet().columnOf((char) b);
+        }
+        this.start = dfa.getStart();
+    }
+
+    public static Utf8DFA parse(String regex) {
+        return compile(DFA.parse(regex));
+    }
+
+    /**
+     * @param dfa single pattern DFA over chars
+     * @return
+     */
+    public static Utf8DFA compile(DFA dfa) {
+        Preconditions.checkNotNull(dfa);
+        Preconditions.checkArgument(dfa.getMatchingPatterns() == null, "DFA of several patterns");
+        int n = dfa.getStateCount();
+        int[] source = dfa.getTable();
+        Alphabet alphabet = dfa.getAlphabet();
+        int width = alphabet.size();
+
+        Trie trie = new Trie(n);
+        for (int from = 0; from < n; from++) {
+            for (int i = 0; i < alphabet.getIntervalCount(); i++) {
+                int to = source[from * width + alphabet.column(i)];
+                if (to == DFA.OFF_STATE) {
+                    continue;
+                }
+                // half of a surrogate pair is no code point of its own, so has no UTF-8 encoding
+                int lo = alphabet.lo(i);
+                int hi = alphabet.hi(i);
+                if (lo < Character.MIN_SURROGATE) {
+                    trie.add(from, lo, Math.min(hi, Character.MIN_SURROGATE - 1), to);
+                }
+                if (hi > Character.MAX_SURROGATE) {
+                    trie.add(from, Math.max(lo, Character.MAX_SURROGATE + 1), hi, to);
+                }
+                int highLo = Math.max(lo, Character.MIN_HIGH_SURROGATE);
+                int highHi = Math.min(hi, Character.MAX_HIGH_SURROGATE);
+                if (highLo <= highHi) {
+                    addSupplementary(trie, source, alphabet, from, highLo, highHi, to);
+                }
+            }
+        }
+        int states = trie.states;
+        boolean[] finals = Arrays.copyOf(dfa.getFinalStates(), states);
+        DFA bytes = new DFA(Arrays.copyOf(trie.table, states * WIDTH), Alphabet.singles((char) 0, WIDTH),
+                dfa.getStart(), finals, null, states);
+        return new Utf8DFA(DFA.mergeColumns(DFAMinimizer.minimize(bytes)));
+    }
+
+    /**
+     * Lead from a state to wherever the char DFA goes on each pair of a high surrogate in the given range and a low
+     * surrogate. The pairs of a whole range of high surrogates and all low surrogates are one range of code points, any
+     * other low range gives a range per high surrogate.
+     *
+     * @param high state the char DFA reaches on the high surrogates
+     */
+    private static void addSupplementary(Trie trie, int[] source, Alphabet alphabet, int from, int highLo, int highHi,
+                                         int high) {
+        int width = alphabet.size();
+        for (int j = 0; j < alphabet.getIntervalCount(); j++) {
+            int to = source[high * width + alphabet.column(j)];
+            int lowLo = Math.max(alphabet.lo(j), Character.MIN_LOW_SURROGATE);
+            int lowHi = Math.min(alphabet.hi(j), Character.MAX_LOW_SURROGATE);
+            if (to == DFA.OFF_STATE || lowLo > lowHi) {
+                continue;
+            }
+            if (lowLo == Character.MIN_LOW_SURROGATE && lowHi == Character.MAX_LOW_SURROGATE) {
+                trie.add(from, Character.toCodePoint((char) highLo, (char) lowLo),
+                        Character.toCodePoint((char) highHi, (char) lowHi), to);
+            } else {
+                for (int h = highLo; h <= highHi; h++) {
+                    trie.add(from, Character.toCodePoint((char) h, (char) lowLo),
+                            Character.toCodePoint((char) h, (char) lowHi), to);
+                }
+            }
+        }
+    }
+
+    /**
+     * Byte transitions under construction. A range of chars is split until every piece is a sequence of byte ranges,
+     * where a range wider than one byte is only ever followed by full continuation ranges, as in {@code E1-E2 80-BF
+     * 80-BF}. Such a piece gets one shared intermediate state per prefix however many chars it holds, and since the
+     * chars of a state's intervals are disjoint no other piece ever reaches that state.
+     */
+    private static final class Trie {
+
+        private int[] table;
+        private int states;
+
+        private Trie(int n) {
+            this.table = new int[Math.max(n, 1) * 2 * WIDTH];
+            Arrays.fill(table, DFA.OFF_STATE);
+            this.states = n;
+        }
+
+        /**
+         * @param from state the code points lead away from
+         * @param lo   first code point, not a surrogate
+         * @param hi   last code point, not a surrogate
+         * @param to   state the code points lead to
+         */
+        private void add(int from, int lo, int hi, int to) {
+            // pieces must not mix encoding lengths
+            for (int max : new int[]{0x7F, 0x7FF, 0xFFFF}) {
+                if (lo <= max && hi > max) {
+                    add(from, lo, max, to);
+                    add(from, max + 1, hi, to);
+                    return;
+                }
+            }
+            int length = hi < 0x80 ? 1 : hi < 0x800 ? 2 : hi < 0x10000 ? 3 : 4;
+            for (int k = 1; k < length; k++) {
+                // the low k continuation bytes of the piece must span all of 80-BF, or not vary at all
+                int mask = (1 << 6 * k) - 1;
+                if ((lo & ~mask) != (hi & ~mask)) {
+                    if ((lo & mask) != 0) {
+                        add(from, lo, lo | mask, to);
+                        add(from, (lo | mask) + 1, hi, to);
+                        return;
+                    }
+                    if ((hi & mask) != mask) {
+                        add(from, lo, (hi & ~mask) - 1, to);
+                        add(from, hi & ~mask, hi, to);
+                        return;
+                    }
+                }
+            }
+            byte[] first = new byte[4];
+            byte[] last = new byte[4];
+            encode(lo, first);
+            encode(hi, last);
+            insert(from, first, last, 0, length, to);
+        }
+
+        private void insert(int curr, byte[] first, byte[] last, int k, int length, int to) {
+            int fresh = DFA.OFF_STATE;
+            for (int b = first[k] & 0xFF; b <= (last[k] & 0xFF); b++) {
+                int cell = curr * WIDTH + b;
+                if (k == length - 1) {
+                    table[cell] = to;
+                } else if (table[cell] == DFA.OFF_STATE) {
+                    if (fresh == DFA.OFF_STATE) {
+                        fresh = newState();
+                        insert(fresh, first, last, k + 1, length, to);
+                    }
+                    table[cell] = fresh;
+                } else {
+                    insert(table[cell], first, last, k + 1, length, to);
+                }
+            }
+        }
+
+        private int newState() {
+            if ((states + 1) * WIDTH > table.length) {
+                int old = table.length;
+                table = Arrays.copyOf(table, old * 2);
+                Arrays.fill(table, old, table.length, DFA.OFF_STATE);
+            }
+            return states++;
+        }
+    }
+
+    /**
+     * @return bytes written, 1 to 4 for a code point that isn't a surrogate
+     */
+    static int encode(int codePoint, byte[] into) {
+        if (codePoint < 0x80) {
+            into[0] = (byte) codePoint;
+            return 1;
+        } else if (codePoint < 0x800) {
+            into[0] = (byte) (0xC0 | codePoint >> 6);
+            into[1] = (byte) (0x80 | codePoint & 0x3F);
+            return 2;
+        } else if (codePoint < 0x10000) {
+            into[0] = (byte) (0xE0 | codePoint >> 12);
+            into[1] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+            into[2] = (byte) (0x80 | codePoint & 0x3F);
+            return 3;
+        }
+        into[0] = (byte) (0xF0 | codePoint >> 18);
+        into[1] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        into[2] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        into[3] = (byte) (0x80 | codePoint & 0x3F);
+        return 4;
+    }
+
+    public int getStart() {
+        return start;
+    }
+
+    public int getStateCount() {
+        return dfa.getStateCount();
+    }
+
+    /**
+     * @return number of byte classes, the width of a row of the table
+     */
+    public int getClassCount() {
+        return width;
+    }
+
+    public int next(int state, byte input) {
+        return state == DFA.OFF_STATE ? DFA.OFF_STATE : table[state * width + classes[input & 0xFF]];
+    }
+
+    /**
+     * Step over the UTF-8 encoding of a char, for callers that have chars after all. A surrogate on its own has none,
+     * see {@link #nextCodePoint(int, int)} for pairs.
+     *
+     * @param state
+     * @param input
+     * @return
+     */
+    public int next(int state, char input) {
+        if (input < 0x80) {
+            return next(state, (byte) input);
+        }
+        if (Character.isSurrogate(input)) {
+            return DFA.OFF_STATE;
+        }
+        if (input < 0x800) {
+            return next(next(state, (byte) (0xC0 | input >> 6)), (byte) (0x80 | input & 0x3F));
+        }
+        return next(next(next(state, (byte) (0xE0 | input >> 12)), (byte) (0x80 | input >> 6 & 0x3F)),
+                (byte) (0x80 | input & 0x3F));
+    }
+
+    /**
+     * Step over the UTF-8 encoding of a code point
+     *
+     * @param state
+     * @param codePoint
+     * @return
+     */
+    public int nextCodePoint(int state, int codePoint) {
+        if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+            return next(state, (char) codePoint);
+        }
+        return next(next(next(next(state, (byte) (0xF0 | codePoint >> 18)), (byte) (0x80 | codePoint >> 12 & 0x3F)),
+                (byte) (0x80 | codePoint >> 6 & 0x3F)), (byte) (0x80 | codePoint & 0x3F));
+    }
+
+    public boolean isFinal(int state) {
+        return dfa.isFinal(state);
+    }
+
+    /**
+     * @param state
+     * @return true if no further bytes can lead from this state to a match
+     */
+    public boolean isDead(int state) {
+        return dfa.isDead(state);
+    }
+
+    public boolean matches(byte[] input, int offset, int length) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkPositionIndexes(offset, offset + length, input.length);
+        int state = start;
+        int end = offset + length;
+        for (int i = offset; i < end && state != DFA.OFF_STATE; i++) {
+            state = table[state * width + classes[input[i] & 0xFF]];
+        }
+        return isFinal(state);
+    }
+
+    /**
+     * Match the bytes between the given absolute offsets of a buffer, heap, direct or mapped. The buffer's position and
+     * limit are left alone, so one buffer can be shared by several threads.
+     *
+     * @param input
+     * @param from
+     * @param to
+     * @return
+     */
+    public boolean matches(ByteBuffer input, int from, int to) {
+        Preconditions.checkNotNull(input);
+        Preconditions.checkPositionIndexes(from, to, input.limit());
+        if (input.hasArray()) {
+            return matches(input.array(), input.arrayOffset() + from, to - from);
+        }
+        int state = start;
+        for (int i = from; i < to && state != DFA.OFF_STATE; i++) {
+            state = table[state * width + classes[input.get(i) & 0xFF]];
+        }
+        return isFinal(state);
+    }
+}
@@ -0,0 +1,24 @@
+package io.github.nhomble.regex.parser.exceptions;
+
+public class MissingSymbolException extends RuntimeException {
+
+    private final int position;
+
+    public MissingSymbolException(String symbol){
+        this(symbol, RegexParseException.UNKNOWN_POSITION);
+    }
+
+    /**
+     * @param symbol
+     * @param position index in the regex of whatever the missing symbol should have closed
+     */
+    public MissingSymbolException(String symbol, int position) {
+        super("Missing symbol='" + symbol + "'"
+                + (position == RegexParseException.UNKNOWN_POSITION ? "" : " to close position=" + position));
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
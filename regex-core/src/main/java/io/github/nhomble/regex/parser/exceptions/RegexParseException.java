@@ -0,0 +1,25 @@
+package io.github.nhomble.regex.parser.exceptions;
+
+public class RegexParseException extends RuntimeException {
+
+    public static final int UNKNOWN_POSITION = -1;
+
+    private final int position;
+
+    public RegexParseException(String msg) {
+        this(msg, UNKNOWN_POSITION);
+    }
+
+    /**
+     * @param msg
+     * @param position index in the regex where parsing failed, the length of the regex if it ended too early
+     */
+    public RegexParseException(String msg, int position) {
+        super("Parsing exception msg='" + msg + "'" + (position == UNKNOWN_POSITION ? "" : " position=" + position));
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+}
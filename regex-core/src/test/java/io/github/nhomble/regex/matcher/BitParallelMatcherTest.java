@@ -0,0 +1,104 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.BitParallelNFA;
+import io.github.nhomble.regex.parser.BitParallelRegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BitParallelMatcherTest {
+
+    private BitParallelRegexParser parser = new BitParallelRegexParser();
+
+    @Test
+    void and() {
+        RegexMatcher matcher = parser.parse("ab");
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void or() {
+        RegexMatcher matcher = parser.parse("a|b");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("b"));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void star() {
+        RegexMatcher matcher = parser.parse("a*");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("aa"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("c"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void question() {
+        RegexMatcher matcher = parser.parse("a?");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("aa"));
+    }
+
+    @Test
+    void uat() {
+        RegexMatcher matcher = parser.parse("(a|b)*c?");
+        assertTrue(matcher.matches("aaaaaa"));
+        assertTrue(matcher.matches("aabbbbc"));
+        assertFalse(matcher.matches("cc"));
+    }
+
+    @Test
+    void multiWord() {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            regex.append("(ab|c)*d");
+            input.append("abcabd");
+        }
+        BitParallelNFA nfa = BitParallelNFA.parse(regex.toString());
+        assertEquals(3, nfa.getWords());
+        assertTrue(nfa.matches(input));
+        assertFalse(nfa.matches(input.append("d")));
+    }
+
+    @Test
+    void batch() {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            regex.append("(ab|c)*d");
+        }
+        RegexMatcher matcher = parser.parse(regex.toString());
+        List<String> inputs = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder input = new StringBuilder();
+            for (int j = 0; j < 40; j++) {
+                input.append(j == i % 50 ? "abd" : "cd");
+            }
+            inputs.add(i % 5 == 0 ? input.append('d').toString() : input.toString());
+            expected.set(i, i % 5 != 0);
+        }
+        assertEquals(expected, matcher.matches(inputs));
+    }
+
+    @Test
+    void classes() {
+        RegexMatcher matcher = parser.parse("x[0-9]*.");
+        assertTrue(matcher.matches("x123y"));
+        assertTrue(matcher.matches("x1"));
+        assertFalse(matcher.matches("x"));
+        assertFalse(matcher.matches("x12\n"));
+    }
+}
@@ -0,0 +1,94 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.BytecodeRegexParser;
+import io.github.nhomble.regex.parser.DFA;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BytecodeDFAMatcherTest {
+
+    private BytecodeRegexParser parser = new BytecodeRegexParser();
+
+    @Test
+    void and() {
+        RegexMatcher matcher = parser.parse("ab");
+        assertTrue(matcher instanceof BytecodeDFAMatcher);
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void or() {
+        RegexMatcher matcher = parser.parse("a|b");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("b"));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void star() {
+        RegexMatcher matcher = parser.parse("a*");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("aa"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("c"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void sameAsTable() {
+        Random random = new Random(11);
+        for (String regex : new String[]{"(a|b)*c", "((ab)*c)*", "(a(b|c)*a|b)*", "a0|z9*|Az"}) {
+            DFA dfa = DFA.parse(regex);
+            DFAMatcher table = new DFAMatcher(dfa);
+            RegexMatcher generated = BytecodeDFAMatcher.compile(dfa);
+            for (int trial = 0; trial < 500; trial++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(12);
+                for (int i = 0; i < length; i++) {
+                    input.append("abcz09A".charAt(random.nextInt(7)));
+                }
+                assertEquals(table.matches(input), generated.matches(input), regex + " " + input);
+            }
+        }
+    }
+
+    @Test
+    void tooLargeFallsBackToTable() {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < 2_000; i++) {
+            regex.append((char) ('a' + i % 26));
+        }
+        RegexMatcher matcher = parser.parse(regex.toString());
+        assertTrue(matcher instanceof DFAMatcher);
+        assertTrue(matcher.matches(regex.toString()));
+    }
+
+    @Test
+    void wideClasses() {
+        // too many chars for a switch, so the ranges are searched
+        Random random = new Random(13);
+        String chars = "abc,z\n\u00e9\u4e2d\uffff";
+        for (String regex : new String[]{"[^,]*[,][^a-c]", ".*z|[a-c\u4e2d-\uffff]*", "(a|[^a])*b"}) {
+            DFA dfa = DFA.parse(regex);
+            DFAMatcher table = new DFAMatcher(dfa);
+            RegexMatcher generated = BytecodeDFAMatcher.compile(dfa);
+            assertTrue(generated instanceof BytecodeDFAMatcher);
+            for (int trial = 0; trial < 500; trial++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(8);
+                for (int i = 0; i < length; i++) {
+                    input.append(chars.charAt(random.nextInt(chars.length())));
+                }
+                assertEquals(table.matches(input), generated.matches(input), regex + " " + input);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.nhomble.regex.matcher;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CaptureMatcherTest {
+
+    private static int[] match(String regex, String input) {
+        CaptureMatcher matcher = CaptureMatcher.compile(regex);
+        int[] groups = matcher.newGroups();
+        assertTrue(matcher.match(input, groups));
+        return groups;
+    }
+
+    @Test
+    void onePass() {
+        CaptureMatcher matcher = CaptureMatcher.compile("(a*)b(c|d)");
+        assertTrue(matcher.isOnePass());
+        assertEquals(2, matcher.getGroupCount());
+        int[] groups = matcher.newGroups();
+        assertTrue(matcher.match("aabd", groups));
+        assertArrayEquals(new int[]{0, 4, 0, 2, 3, 4}, groups);
+    }
+
+    @Test
+    void lastIteration() {
+        assertArrayEquals(new int[]{0, 3, 2, 3}, match("(a|b)*", "abb"));
+        // the inner group keeps the iteration it last took part in
+        assertArrayEquals(new int[]{0, 2, 1, 2, 0, 1}, match("(a|(b))*", "ba"));
+    }
+
+    @Test
+    void notParticipating() {
+        assertArrayEquals(new int[]{0, 1, -1, -1, 0, 1}, match("(a)|(b)", "b"));
+        assertArrayEquals(new int[]{0, 1, -1, -1}, match("a(b)?", "a"));
+    }
+
+    @Test
+    void greedy() {
+        CaptureMatcher matcher = CaptureMatcher.compile("(a*)(a*)");
+        assertFalse(matcher.isOnePass());
+        int[] groups = matcher.newGroups();
+        assertTrue(matcher.match("aa", groups));
+        assertArrayEquals(new int[]{0, 2, 0, 2, 2, 2}, groups);
+    }
+
+    @Test
+    void leftmostAlternative() {
+        // a backtracking matcher takes the first alternative that lets the rest match
+        assertArrayEquals(new int[]{0, 4, 0, 1, 1, 4}, match("(a|ab)(c|bcd)", "abcd"));
+        assertArrayEquals(new int[]{0, 3, 0, 2, 2, 3}, match("(a|ab)(c|bcd)", "abc"));
+    }
+
+    @Test
+    void nested() {
+        assertArrayEquals(new int[]{0, 3, 0, 3, 1, 2}, match("(a(b)c)", "abc"));
+        assertArrayEquals(new int[]{0, 1, 0, 1, 0, 1}, match("((a))", "a"));
+    }
+
+    @Test
+    void noMatch() {
+        for (String regex : Arrays.asList("(a*)b(c|d)", "(a*)(a*)b")) {
+            CaptureMatcher matcher = CaptureMatcher.compile(regex);
+            int[] groups = matcher.newGroups();
+            assertTrue(matcher.match("ab" + (matcher.isOnePass() ? "c" : ""), groups));
+            assertFalse(matcher.match("aac", groups));
+            int[] expected = new int[groups.length];
+            Arrays.fill(expected, -1);
+            assertArrayEquals(expected, groups);
+        }
+    }
+
+    @Test
+    void hostile() {
+        // exponential for a backtracking matcher
+        CaptureMatcher matcher = CaptureMatcher.compile("(a*)*b");
+        char[] input = new char[10_000];
+        Arrays.fill(input, 'a');
+        int[] groups = matcher.newGroups();
+        assertFalse(matcher.match(new String(input), groups));
+        input[input.length - 1] = 'b';
+        assertTrue(matcher.match(new String(input), groups));
+        assertEquals(input.length, groups[1]);
+    }
+
+    @Test
+    void worker() {
+        RegexMatcher worker = CaptureMatcher.compile("(a|b)*c").worker();
+        assertTrue(worker.matches("abc"));
+        assertFalse(worker.matches("abd"));
+        assertTrue(worker.matches("c"));
+    }
+
+    @Test
+    void classes() {
+        assertArrayEquals(new int[]{0, 7, 0, 3, 4, 7}, match("([a-z]*)[=]([^;]*)", "key=v,1"));
+        assertArrayEquals(new int[]{0, 3, 1, 2}, match("a(.)c", "abc"));
+    }
+}
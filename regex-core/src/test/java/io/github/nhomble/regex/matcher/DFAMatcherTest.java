@@ -0,0 +1,102 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFARegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DFAMatcherTest {
+
+    private DFARegexParser parser = new DFARegexParser();
+
+    @Test
+    void and() {
+        RegexMatcher matcher = parser.parse("ab");
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void or() {
+        RegexMatcher matcher = parser.parse("a|b");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("b"));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void star(){
+        RegexMatcher matcher = parser.parse("a*");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("aa"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("c"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void question(){
+        RegexMatcher matcher = parser.parse("a?");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("aa"));
+    }
+
+    @Test
+    void charSequenceAndArray() {
+        DFAMatcher matcher = (DFAMatcher) parser.parse("(a|b)*c");
+        assertTrue(matcher.matches(new StringBuilder("abbac")));
+        assertFalse(matcher.matches(new StringBuilder("abbad")));
+        char[] input = "xxabcxx".toCharArray();
+        assertTrue(matcher.matches(input, 2, 3));
+        assertFalse(matcher.matches(input, 1, 4));
+        assertTrue(matcher.matches(input, 4, 1));
+    }
+
+    @Test
+    void batch() {
+        RegexMatcher matcher = parser.parse("(a|b)*c");
+        List<CharSequence> inputs = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 10_000; i++) {
+            boolean matches = i % 3 == 0;
+            inputs.add(new StringBuilder("ab").append(i % 2 == 0 ? "ba" : "").append(matches ? "c" : "d"));
+            expected.set(i, matches);
+        }
+        assertEquals(expected, matcher.matches(inputs));
+        assertEquals(expected.get(0, 3), matcher.matches(new CharSequence[]{"abc", "abd", "abd"}));
+        // a linked batch is copied once rather than walked for every input
+        List<CharSequence> linked = new LinkedList<CharSequence>(inputs) {
+            @Override
+            public CharSequence get(int index) {
+                throw new AssertionError("indexed into a linked list");
+            }
+        };
+        assertEquals(expected, matcher.matches(linked));
+    }
+
+    @Test
+    void classes() {
+        RegexMatcher matcher = parser.parse("[a-z0-9]*[@][^,][^,]*");
+        assertTrue(matcher.matches("abc123@x"));
+        assertTrue(matcher.matches("@ !"));
+        assertFalse(matcher.matches("aB@x"));
+        assertFalse(matcher.matches("a@x,y"));
+        assertFalse(matcher.matches("a@"));
+
+        RegexMatcher dot = parser.parse("a.c");
+        assertTrue(dot.matches("abc"));
+        assertTrue(dot.matches("a\u4e2dc"));
+        assertFalse(dot.matches("a\nc"));
+        assertFalse(dot.matches("ac"));
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.LazyDFA;
+import io.github.nhomble.regex.parser.LazyDFARegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LazyDFAMatcherTest {
+
+    private LazyDFARegexParser parser = new LazyDFARegexParser();
+
+    @Test
+    void and() {
+        RegexMatcher matcher = parser.parse("ab");
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void or() {
+        RegexMatcher matcher = parser.parse("a|b");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("b"));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("c"));
+    }
+
+    @Test
+    void star() {
+        RegexMatcher matcher = parser.parse("a*");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("aa"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("c"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void question() {
+        RegexMatcher matcher = parser.parse("a?");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches(""));
+        assertFalse(matcher.matches("aa"));
+    }
+
+    @Test
+    void boundedCache() {
+        // the full DFA for this needs 2^16 states
+        StringBuilder regex = new StringBuilder("(a|b)*a");
+        for (int i = 0; i < 15; i++) {
+            regex.append("(a|b)");
+        }
+        LazyDFAMatcher matcher = (LazyDFAMatcher) new LazyDFARegexParser(64).parse(regex.toString());
+
+        Random random = new Random(0);
+        for (int n = 0; n < 50; n++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(2000);
+            for (int i = 0; i < length; i++) {
+                input.append(random.nextBoolean() ? 'a' : 'b');
+            }
+            boolean expected = length >= 16 && input.charAt(length - 16) == 'a';
+            assertEquals(expected, matcher.matches(input));
+        }
+
+        LazyDFA dfa = matcher.getDfa();
+        assertTrue(dfa.getCachedStateCount() <= dfa.getMaxStates());
+        assertTrue(dfa.getFlushCount() > 0);
+        assertTrue(dfa.getNfaFallbackCount() > 0);
+    }
+
+    @Test
+    void boundedCacheShared() throws Exception {
+        StringBuilder regex = new StringBuilder("(a|b)*a");
+        for (int i = 0; i < 15; i++) {
+            regex.append("(a|b)");
+        }
+        LazyDFA dfa = LazyDFA.parse(regex.toString(), 8);
+        AtomicInteger largest = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Random random = new Random(t);
+                futures.add(pool.submit(() -> {
+                    for (int n = 0; n < 200; n++) {
+                        StringBuilder input = new StringBuilder();
+                        for (int i = 0; i < 64; i++) {
+                            input.append(random.nextBoolean() ? 'a' : 'b');
+                        }
+                        assertEquals(input.charAt(48) == 'a', dfa.matches(input));
+                        largest.accumulateAndGet(dfa.getCachedStateCount(), Math::max);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertTrue(largest.get() <= dfa.getMaxStates());
+    }
+
+    @Test
+    void fallbackOutsideAlphabet() {
+        // a cache of two states flushes on every new state, so the NFA takes over part way through
+        LazyDFA dfa = LazyDFA.parse("((.c)*)?", 2);
+        assertFalse(dfa.matches("ccb\n"));
+        assertTrue(dfa.getNfaFallbackCount() > 0);
+        assertFalse(LazyDFA.parse("[b](([a-c][a-c]))", 2).matches("bb\n"));
+        assertTrue(LazyDFA.parse("[b](([a-c][a-c]))", 2).matches("bbc"));
+    }
+
+    @Test
+    void classes() {
+        RegexMatcher matcher = parser.parse("[a-c][a-c]*[^a-c]");
+        assertTrue(matcher.matches("abcz"));
+        assertTrue(matcher.matches("a\uffff"));
+        assertFalse(matcher.matches("abc"));
+        assertFalse(matcher.matches("zz"));
+    }
+}
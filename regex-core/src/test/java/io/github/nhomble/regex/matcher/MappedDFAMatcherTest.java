@@ -0,0 +1,97 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.DFAFormat;
+import io.github.nhomble.regex.parser.MappedDFA;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedDFAMatcherTest {
+
+    private Map<String, MappedDFA> bundle;
+
+    @BeforeEach
+    void setup() throws IOException {
+        Map<String, DFA> dfas = new LinkedHashMap<>();
+        for (String regex : Arrays.asList("ab", "ab*", "ab?", "A|B", "(a|b)*c?", "a\u00e9\u4e2d")) {
+            dfas.put(regex, DFA.parse(regex));
+        }
+        Path file = Files.createTempFile("matcher", ".dfa");
+        file.toFile().deleteOnExit();
+        DFAFormat.write(dfas, file);
+        bundle = DFAFormat.load(file);
+    }
+
+    private RegexMatcher matcher(String regex) {
+        return new MappedDFAMatcher(bundle.get(regex));
+    }
+
+    @Test
+    void and() {
+        RegexMatcher matcher = matcher("ab");
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("a"));
+        assertFalse(matcher.matches("ba"));
+    }
+
+    @Test
+    void star() {
+        RegexMatcher matcher = matcher("ab*");
+        assertTrue(matcher.matches("ab"));
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("abb"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void question() {
+        RegexMatcher matcher = matcher("ab?");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("abb"));
+    }
+
+    @Test
+    void or() {
+        RegexMatcher matcher = matcher("A|B");
+        assertTrue(matcher.matches("A"));
+        assertTrue(matcher.matches("B"));
+        assertFalse(matcher.matches("AB"));
+    }
+
+    @Test
+    void uat() {
+        RegexMatcher matcher = matcher("(a|b)*c?");
+        assertTrue(matcher.matches("aaaaaa"));
+        assertTrue(matcher.matches("bbbbbb"));
+        assertTrue(matcher.matches("aabbbbc"));
+        assertFalse(matcher.matches("cc"));
+    }
+
+    @Test
+    void unicode() {
+        RegexMatcher matcher = matcher("a\u00e9\u4e2d");
+        assertTrue(matcher.matches("a\u00e9\u4e2d"));
+        assertFalse(matcher.matches("a\u00e9"));
+    }
+
+    @Test
+    void batch() {
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        assertEquals(expected, matcher("(a|b)*c?").matches(Arrays.asList("aabc", "cc", "ba")));
+    }
+}
@@ -0,0 +1,126 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.LazyDFARegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedLineScannerTest {
+
+    private static Path write(String content) throws IOException {
+        Path file = Files.createTempFile("scanner", ".log");
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    void lines() throws IOException {
+        Path file = write("ab\nabab\r\nc\n\nab");
+        MappedLineScanner scanner = new MappedLineScanner(DFA.parse("(ab)*"));
+        assertArrayEquals(new long[]{1, 2, 4, 5}, scanner.matchingLines(file));
+        assertEquals(4, scanner.count(file));
+        assertEquals(0, scanner.count(write("")));
+    }
+
+    @Test
+    void multiByte() throws IOException {
+        Path file = write("a\u00e9\u4e2d\na\u00e9\n\u00e9\u4e2d\n");
+        MappedLineScanner scanner = new MappedLineScanner(DFA.parse("a?\u00e9\u4e2d"));
+        assertArrayEquals(new long[]{1, 3}, scanner.matchingLines(file));
+    }
+
+    @Test
+    void chunksSplitAtNewlines() throws IOException {
+        Random random = new Random(7);
+        StringBuilder content = new StringBuilder();
+        int lines = 2_000;
+        for (int line = 0; line < lines; line++) {
+            int length = random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                content.append("abc".charAt(random.nextInt(3)));
+            }
+            content.append('\n');
+        }
+        Path file = write(content.toString());
+
+        DFA dfa = DFA.parse("(a|b)*c");
+        DFAMatcher matcher = new DFAMatcher(dfa);
+        String[] split = content.toString().split("\n", -1);
+        long expected = 0;
+        for (int line = 0; line < lines; line++) {
+            if (matcher.matches(split[line])) {
+                expected++;
+            }
+        }
+        for (long chunkSize : new long[]{1, 7, 64, 1 << 20}) {
+            MappedLineScanner scanner = new MappedLineScanner(dfa, chunkSize);
+            assertEquals(expected, scanner.count(file));
+            long[] matching = scanner.matchingLines(file);
+            assertEquals(expected, matching.length);
+            for (long line : matching) {
+                assertTrue(matcher.matches(split[(int) line - 1]));
+            }
+        }
+    }
+
+    @Test
+    void decodedLines() throws IOException {
+        Path file = write("ab\nabab\r\nc\n\u00e9\n\nab\n\u00ff");
+        Path malformed = Files.createTempFile("scanner", ".log");
+        malformed.toFile().deleteOnExit();
+        Files.write(malformed, new byte[]{'a', '\n', 'a', (byte) 0xc3, '\n', (byte) 0xff, '\n', 'a', 'a'});
+        RegexMatcher lazy = new LazyDFARegexParser(4).parse("(ab)*|\u00e9");
+        // the lines must arrive as some other CharSequence than a String
+        RegexMatcher noStrings = new RegexMatcher() {
+            @Override
+            public boolean matches(String input) {
+                throw new AssertionError("line copied into a String");
+            }
+
+            @Override
+            public boolean matches(CharSequence input) {
+                return lazy.matches(input);
+            }
+        };
+        long[] expected = new MappedLineScanner(DFA.parse("(ab)*|\u00e9")).matchingLines(file);
+        assertArrayEquals(new long[]{1, 2, 4, 5, 6}, expected);
+        for (long chunkSize : new long[]{1, 5, 1 << 20}) {
+            MappedLineScanner scanner = new MappedLineScanner(noStrings, chunkSize);
+            assertArrayEquals(expected, scanner.matchingLines(file));
+            assertEquals(expected.length, scanner.count(file));
+        }
+        // a line with malformed UTF-8 never matches, whatever it decodes to
+        RegexMatcher any = new LazyDFARegexParser().parse(".*");
+        assertArrayEquals(new long[]{1, 4}, new MappedLineScanner(any).matchingLines(malformed));
+        assertArrayEquals(new long[]{1, 4}, new MappedLineScanner(DFA.parse(".*")).matchingLines(malformed));
+    }
+
+    @Test
+    void supplementary() throws IOException {
+        String content = "a\ud83d\ude00b\n\ud83d\udc31\n\u00e9\ud83d\ude00\u4e2d\r\n\n\ud83d\ude00\ud83d\ude00\nab";
+        Path file = write(content);
+        String[] split = content.split("\r?\n", -1);
+        for (String regex : new String[]{".*", "a..b", "a.b", "[^a]*", "([\ud83d][\ude00])*"}) {
+            DFAMatcher matcher = new DFAMatcher(DFA.parse(regex));
+            long[] expected = IntStream.range(0, split.length)
+                    .filter(line -> matcher.matches(split[line]))
+                    .mapToLong(line -> line + 1)
+                    .toArray();
+            for (long chunkSize : new long[]{3, 1 << 20}) {
+                assertArrayEquals(expected, new MappedLineScanner(DFA.parse(regex), chunkSize).matchingLines(file), regex);
+                assertArrayEquals(expected, new MappedLineScanner(matcher, chunkSize).matchingLines(file), regex);
+            }
+        }
+    }
+}
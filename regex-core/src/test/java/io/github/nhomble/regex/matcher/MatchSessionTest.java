@@ -0,0 +1,81 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFARegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchSessionTest {
+
+    private DFARegexParser parser = new DFARegexParser();
+
+    @Test
+    void chunks() {
+        DFAMatcher matcher = (DFAMatcher) parser.parse("(ab)*c");
+        MatchSession session = matcher.session();
+        session.feed("ab").feed(CharBuffer.wrap("aba")).feed("xbc".toCharArray(), 1, 2);
+        assertTrue(session.matches());
+        assertFalse(session.isDead());
+
+        session.reset().feed("aba");
+        assertFalse(session.matches());
+        assertFalse(session.isDead());
+    }
+
+    @Test
+    void dead() {
+        DFAMatcher matcher = (DFAMatcher) parser.parse("a*b");
+        MatchSession session = matcher.session();
+        session.feed("aab");
+        assertTrue(session.matches());
+        assertFalse(session.isDead());
+        session.feed("a");
+        assertTrue(session.isDead());
+        session.feed("b");
+        assertFalse(session.matches());
+        assertTrue(session.isDead());
+
+        session.reset().feed("c");
+        assertTrue(session.isDead());
+    }
+
+    @Test
+    void bytesSplitAcrossChunks() {
+        DFAMatcher matcher = (DFAMatcher) parser.parse("a\u00e9*\u4e2d");
+        byte[] bytes = "a\u00e9\u00e9\u4e2d".getBytes(StandardCharsets.UTF_8);
+        for (int split = 0; split <= bytes.length; split++) {
+            MatchSession session = matcher.session();
+            session.feed(ByteBuffer.wrap(bytes, 0, split));
+            session.feed(ByteBuffer.wrap(bytes, split, bytes.length - split));
+            assertTrue(session.matches(), "split at " + split);
+        }
+
+        MatchSession session = matcher.session();
+        for (byte b : bytes) {
+            session.feed(ByteBuffer.wrap(new byte[]{b}));
+        }
+        assertTrue(session.matches());
+        session.reset().feed(ByteBuffer.wrap(bytes, 0, bytes.length - 1));
+        assertFalse(session.matches());
+    }
+
+    @Test
+    void largeInput() {
+        DFAMatcher matcher = (DFAMatcher) parser.parse("(a|b)*");
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            builder.append(i % 3 == 0 ? 'a' : 'b');
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        MatchSession session = matcher.session();
+        session.feed(bytes);
+        assertEquals(0, bytes.remaining());
+        assertTrue(session.matches());
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFA;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParallelDFAMatcherTest {
+
+    private final ForkJoinPool pool = new ForkJoinPool(4);
+
+    @Test
+    void smallInput() {
+        ParallelDFAMatcher matcher = new ParallelDFAMatcher(DFA.parse("(a|b)*c"));
+        assertTrue(matcher.matches("abbac"));
+        assertFalse(matcher.matches("abba"));
+    }
+
+    @Test
+    void sameAsSequential() {
+        Random random = new Random(3);
+        for (String regex : new String[]{"(a|b)*c", "((ab)*c)*", "(a(b|c)*a|b)*", "(ab|ba)*(c|cc)?"}) {
+            DFA dfa = DFA.parse(regex);
+            DFAMatcher sequential = new DFAMatcher(dfa);
+            ParallelDFAMatcher parallel = new ParallelDFAMatcher(dfa, pool, 8);
+            for (int trial = 0; trial < 200; trial++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(500);
+                for (int i = 0; i < length; i++) {
+                    input.append("abc".charAt(random.nextInt(3)));
+                }
+                assertEquals(sequential.matches(input), parallel.matches(input), regex + " " + input);
+            }
+        }
+    }
+
+    @Test
+    void largeInput() {
+        ParallelDFAMatcher matcher = new ParallelDFAMatcher(DFA.parse("((ab)*c)*"), pool, 1024);
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            input.append("ababc");
+        }
+        assertTrue(matcher.matches(input));
+        input.append('a');
+        assertFalse(matcher.matches(input));
+    }
+}
@@ -0,0 +1,118 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Strings;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RegexSearcherTest {
+
+    @Test
+    void find() {
+        RegexSearcher searcher = RegexSearcher.compile("ab*c");
+        assertEquals(Optional.of(new MatchSpan(2, 6)), searcher.find("xxabbcxx"));
+        assertEquals(Optional.of(new MatchSpan(6, 8)), searcher.find("xxabbcac", 3));
+        assertEquals(Optional.empty(), searcher.find("xxabbxx"));
+        assertTrue(searcher.contains("zzac"));
+        assertFalse(searcher.contains("zzab"));
+    }
+
+    @Test
+    void leftmostLongest() {
+        // the match ending first is "c" but "abcd" starts further left
+        RegexSearcher searcher = RegexSearcher.compile("abcd|c");
+        assertEquals(Optional.of(new MatchSpan(0, 4)), searcher.find("abcd"));
+
+        searcher = RegexSearcher.compile("a|ab|abc");
+        assertEquals(Optional.of(new MatchSpan(1, 4)), searcher.find("xabcx"));
+    }
+
+    @Test
+    void findAll() {
+        RegexSearcher searcher = RegexSearcher.compile("(ab)*c");
+        assertEquals(Arrays.asList(new MatchSpan(1, 4), new MatchSpan(5, 6), new MatchSpan(6, 11)),
+                searcher.findAll("xabcxcababc"));
+        assertEquals(Collections.emptyList(), searcher.findAll("abab"));
+    }
+
+    @Test
+    void emptyMatches() {
+        RegexSearcher searcher = RegexSearcher.compile("a*");
+        assertEquals(Arrays.asList(new MatchSpan(0, 0), new MatchSpan(1, 4), new MatchSpan(4, 4)),
+                searcher.findAll("baaa"));
+        assertEquals(Optional.of(new MatchSpan(0, 0)), searcher.find(""));
+    }
+
+    @Test
+    void findAllAgreesWithFind() {
+        Random random = new Random(0);
+        for (String regex : new String[]{"a|a*b", "(ab)*c", "a*", "b(a|b)*a|ab", "(a|ab)(c|bcd)"}) {
+            RegexSearcher searcher = RegexSearcher.compile(regex);
+            for (int n = 0; n < 200; n++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(20);
+                for (int i = 0; i < length; i++) {
+                    input.append("abcd".charAt(random.nextInt(4)));
+                }
+                List<MatchSpan> expected = new ArrayList<>();
+                int from = 0;
+                for (Optional<MatchSpan> span = searcher.find(input, from); span.isPresent();
+                     span = from <= input.length() ? searcher.find(input, from) : Optional.empty()) {
+                    expected.add(span.get());
+                    from = span.get().getEnd() == span.get().getStart() ? span.get().getEnd() + 1 : span.get().getEnd();
+                }
+                assertEquals(expected, searcher.findAll(input), regex + " over " + input);
+            }
+        }
+    }
+
+    @Test
+    void findAllIsLinear() {
+        // every a is a match of its own, and each one could still grow into a*b until the input ends
+        int length = 100_000;
+        CountingSequence input = new CountingSequence(Strings.repeat("a", length));
+        List<MatchSpan> spans = RegexSearcher.compile("a|a*b").findAll(input);
+        assertEquals(length, spans.size());
+        assertEquals(new MatchSpan(length - 1, length), spans.get(length - 1));
+        assertTrue(input.reads <= 4L * length, input.reads + " reads");
+    }
+
+    private static class CountingSequence implements CharSequence {
+        private final String chars;
+        private long reads;
+
+        CountingSequence(String chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int length() {
+            return chars.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            reads++;
+            return chars.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return chars.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return chars;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFARegexParser;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RegexSetTest {
+
+    private RegexSet set = RegexSet.compile("ab*", "(a|b)*", "a?c", "abb");
+
+    @Test
+    void allMatchingPatterns() {
+        assertArrayEquals(new int[]{0, 1, 3}, set.matchingPatterns("abb"));
+        assertArrayEquals(new int[]{0, 1}, set.matchingPatterns("a"));
+        assertArrayEquals(new int[]{1}, set.matchingPatterns(""));
+        assertArrayEquals(new int[]{2}, set.matchingPatterns("ac"));
+        assertArrayEquals(new int[]{}, set.matchingPatterns("bc"));
+    }
+
+    @Test
+    void bitSet() {
+        BitSet result = set.matches("ab");
+        assertTrue(result.get(0));
+        assertTrue(result.get(1));
+        assertFalse(result.get(2));
+        assertFalse(result.get(3));
+
+        set.matches("c", result);
+        assertEquals(1, result.cardinality());
+        assertTrue(result.get(2));
+    }
+
+    @Test
+    void any() {
+        assertTrue(set.matchesAny("bbb"));
+        assertFalse(set.matchesAny("cc"));
+    }
+
+    @Test
+    void sameAsSeparateMatchers() {
+        String[] patterns = {"(a|b)*c", "a(b|c)*", "c?a?b?", "(ab|ba)*"};
+        RegexSet combined = RegexSet.compile(patterns);
+        DFARegexParser parser = new DFARegexParser();
+        String[] inputs = {"", "a", "abc", "abab", "cab", "acbc", "bac", "c", "ba"};
+        for (String input : inputs) {
+            BitSet result = combined.matches(input);
+            for (int i = 0; i < patterns.length; i++) {
+                RegexMatcher single = parser.parse(patterns[i]);
+                assertEquals(single.matches(input), result.get(i), patterns[i] + " on " + input);
+            }
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.Utf8DFA;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class Utf8DFAMatcherTest {
+
+    private static Utf8DFAMatcher matcher(String regex) {
+        return new Utf8DFAMatcher(Utf8DFA.parse(regex));
+    }
+
+    private static byte[] utf8(String input) {
+        return input.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void ascii() {
+        Utf8DFAMatcher matcher = matcher("(a|b)*c?");
+        assertTrue(matcher.matches(utf8("aabbbbc")));
+        assertTrue(matcher.matches(utf8("")));
+        assertFalse(matcher.matches(utf8("cc")));
+        assertTrue(matcher.matches("abc"));
+    }
+
+    @Test
+    void multiByte() {
+        Utf8DFAMatcher matcher = matcher("a\u00e9*\u4e2d");
+        assertTrue(matcher.matches(utf8("a\u00e9\u00e9\u4e2d")));
+        assertTrue(matcher.matches(utf8("a\u4e2d")));
+        assertFalse(matcher.matches(utf8("a\u00e9")));
+        assertTrue(matcher.matches("a\u00e9\u4e2d"));
+        // a lone lead byte is no char
+        assertFalse(matcher.matches(new byte[]{'a', (byte) 0xC3, (byte) 0xE4, (byte) 0xB8, (byte) 0xAD}));
+    }
+
+    @Test
+    void sharedLeadByte() {
+        // both are C3 followed by one continuation byte
+        Utf8DFAMatcher matcher = matcher("\u00e9|\u00e8");
+        assertTrue(matcher.matches(utf8("\u00e9")));
+        assertTrue(matcher.matches(utf8("\u00e8")));
+        assertFalse(matcher.matches(utf8("\u00ea")));
+        assertFalse(matcher.matches(new byte[]{(byte) 0xC3}));
+    }
+
+    @Test
+    void malformed() {
+        Utf8DFAMatcher matcher = matcher("a");
+        // overlong encoding of 'a'
+        assertFalse(matcher.matches(new byte[]{(byte) 0xC1, (byte) 0xA1}));
+        assertFalse(matcher.matches(new byte[]{(byte) 0xE1}));
+    }
+
+    @Test
+    void minimized() {
+        // all four are C3 and one more byte leading back to the same state, so they share one intermediate state
+        Utf8DFA dfa = Utf8DFA.parse("(\u00e0|\u00e1|\u00e2|\u00e3)*");
+        assertEquals(2, dfa.getStateCount());
+    }
+
+    @Test
+    void buffers() {
+        Utf8DFAMatcher matcher = matcher("a\u00e9b");
+        byte[] bytes = utf8("xa\u00e9by");
+
+        assertTrue(matcher.matches(bytes, 1, bytes.length - 2));
+        ByteBuffer heap = ByteBuffer.wrap(bytes);
+        heap.position(1).limit(bytes.length - 1);
+        assertTrue(matcher.matches(heap));
+        assertTrue(matcher.matches(heap.slice()));
+        assertEquals(1, heap.position());
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        assertFalse(matcher.matches(direct));
+        direct.position(1).limit(bytes.length - 1);
+        assertTrue(matcher.matches(direct));
+    }
+
+    @Test
+    void mapped() throws IOException {
+        Path file = Files.createTempFile("utf8", ".txt");
+        file.toFile().deleteOnExit();
+        Files.write(file, utf8("\u00e9\u4e2d\u00e9"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            assertTrue(matcher("(\u00e9|\u4e2d)*").matches(buffer));
+            assertFalse(matcher("\u00e9*").matches(buffer));
+        }
+    }
+
+    @Test
+    void sameAsChars() {
+        // whole code points, so a supplementary one is never split
+        String[] alphabet = {"a", "b", "\u00e9", "\u00e8", "\u4e2d", "\u4e2e", "\ud83d\ude00", "\ud83d\udc31"};
+        Random random = new Random(7);
+        for (String regex : new String[]{"(a|\u00e9)*\u4e2d?", "(\u00e8\u4e2e|b)*a", "\u00e9?\u00e8?(\u4e2d|\u4e2e)*",
+                "[^\u00e9]*", "[a-\u00e8]\u4e2d*", ".[\u4e2e-\uffff]", "(..|a)*", "[^\ude00]*",
+                "(a|[\ud83d][\ude00])*([\ud83d][\udc00-\udcff])?"}) {
+            DFAMatcher chars = new DFAMatcher(DFA.parse(regex));
+            Utf8DFAMatcher bytes = matcher(regex);
+            for (int i = 0; i < 500; i++) {
+                StringBuilder input = new StringBuilder();
+                int length = random.nextInt(6);
+                for (int k = 0; k < length; k++) {
+                    input.append(alphabet[random.nextInt(alphabet.length)]);
+                }
+                assertEquals(chars.matches(input), bytes.matches(utf8(input.toString())), regex + " " + input);
+            }
+        }
+    }
+
+    @Test
+    void ranges() {
+        // every char but a surrogate, laid out as byte ranges rather than one path per char
+        Utf8DFA dfa = Utf8DFA.parse(".*");
+        assertTrue(dfa.getStateCount() < 10);
+        Utf8DFAMatcher matcher = new Utf8DFAMatcher(dfa);
+        assertTrue(matcher.matches(utf8("a\u00e9\u0800\ud7ff\ue000\uffff")));
+        assertFalse(matcher.matches(utf8("\n")));
+        // encoded surrogate
+        assertFalse(matcher.matches(new byte[]{(byte) 0xED, (byte) 0xA0, (byte) 0x80}));
+    }
+
+    @Test
+    void supplementary() {
+        // U+1F600 and U+1F431 are four bytes each, F0 9F 98 80 and F0 9F 90 B1
+        String emoji = "\ud83d\ude00\ud83d\udc31";
+        Utf8DFAMatcher any = matcher(".*");
+        assertTrue(any.matches(utf8("a" + emoji + "b")));
+        assertTrue(any.matches("a" + emoji + "b"));
+        assertTrue(matcher("a..b").matches(utf8("a\ud83d\ude00b")));
+        assertFalse(matcher("a.b").matches(utf8("a\ud83d\ude00b")));
+        // surrogates only go in classes
+        assertTrue(matcher("([\ud83d][\ude00])*[\ud83d][\udc31]").matches(utf8(emoji)));
+        assertFalse(matcher("[\ud83d][\ude00]").matches(utf8("\ud83d\udc31")));
+        // only some low surrogates follow the high ones, so each high surrogate gets its own range of code points
+        Utf8DFAMatcher faces = matcher("[\ud83c-\ud83d][\ude00-\ude4f]");
+        assertTrue(faces.matches(utf8("\ud83d\ude4f")));
+        assertTrue(faces.matches(utf8("\ud83c\ude00")));
+        assertFalse(faces.matches(utf8("\ud83d\ude50")));
+        // a lone lead byte, and a four byte sequence cut short
+        assertFalse(any.matches(new byte[]{(byte) 0xF0}));
+        assertFalse(any.matches(new byte[]{(byte) 0xF0, (byte) 0x9F, (byte) 0x98}));
+        // overlong four byte encoding of U+FFFF, and past U+10FFFF
+        assertFalse(any.matches(new byte[]{(byte) 0xF0, (byte) 0x8F, (byte) 0xBF, (byte) 0xBF}));
+        assertFalse(any.matches(new byte[]{(byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80}));
+        assertTrue(any.matches(new byte[]{(byte) 0xF4, (byte) 0x8F, (byte) 0xBF, (byte) 0xBF}));
+    }
+
+    @Test
+    void byteClasses() {
+        // a and b, c and every other byte
+        assertEquals(3, Utf8DFA.parse("(a|b)*c?").getClassCount());
+        Utf8DFA dfa = Utf8DFA.parse("[^\u00e9]*");
+        assertTrue(dfa.getClassCount() < 16);
+        assertTrue(new Utf8DFAMatcher(dfa).matches(utf8("a\u00e8\u4e2d")));
+        assertFalse(new Utf8DFAMatcher(dfa).matches(utf8("a\u00e9")));
+    }
+}
@@ -0,0 +1,44 @@
+package io.github.nhomble.regex.parser;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.parser.exceptions.RegexParseException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachingRegexParserTest {
+
+    @Test
+    void sharesCompiledMatchers() {
+        CachingRegexParser parser = new CachingRegexParser(new DFARegexParser());
+        RegexMatcher first = parser.parse("(a|b)*c");
+        RegexMatcher second = parser.parse("(a|b)*c");
+        assertSame(first, second);
+        assertTrue(second.matches("abc"));
+        assertEquals(1, parser.stats().hitCount());
+        assertEquals(1, parser.stats().missCount());
+    }
+
+    @Test
+    void evictsByWeight() {
+        // each of these compiles to a 2 state, 1 column DFA
+        CachingRegexParser parser = new CachingRegexParser(new DFARegexParser(), 4, false);
+        parser.parse("a");
+        parser.parse("b");
+        parser.parse("c");
+        assertTrue(parser.size() < 3);
+        assertTrue(parser.stats().evictionCount() > 0);
+    }
+
+    @Test
+    void softValues() {
+        CachingRegexParser parser = new CachingRegexParser(new DFARegexParser(), 1024, true);
+        assertTrue(parser.parse("ab").matches("ab"));
+    }
+
+    @Test
+    void parseErrorsAreNotWrapped() {
+        CachingRegexParser parser = new CachingRegexParser(new DFARegexParser());
+        assertThrows(RegexParseException.class, () -> parser.parse("a|"));
+    }
+}
@@ -0,0 +1,142 @@
+package io.github.nhomble.regex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DFAFormatTest {
+
+    private static final List<String> INPUTS = Arrays.asList("", "a", "b", "ab", "abb", "aabbc", "ba", "c", "cc", "abcd");
+
+    private static byte[] bytes(Map<String, DFA> dfas) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DFAFormat.write(dfas, out);
+        return out.toByteArray();
+    }
+
+    private static void assertSameLanguage(DFA expected, MappedDFA actual) {
+        assertEquals(expected.getStateCount(), actual.getStateCount());
+        assertEquals(expected.getAlphabetSize(), actual.getAlphabetSize());
+        for (String input : INPUTS) {
+            int expectedState = expected.getStart();
+            int actualState = actual.getStart();
+            for (char c : input.toCharArray()) {
+                expectedState = expected.next(expectedState, c);
+                actualState = actual.next(actualState, c);
+                assertEquals(expectedState, actualState, input);
+            }
+            assertEquals(expected.isFinal(expectedState), actual.isFinal(actualState), input);
+        }
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        Map<String, DFA> dfas = new LinkedHashMap<>();
+        for (String regex : Arrays.asList("ab*", "(a|b)*c?", "a?b?c?d", "abcd|bc")) {
+            dfas.put(regex, DFA.parse(regex));
+        }
+        Path file = Files.createTempFile("bundle", ".dfa");
+        file.toFile().deleteOnExit();
+        DFAFormat.write(dfas, file);
+
+        Map<String, MappedDFA> loaded = DFAFormat.load(file);
+        assertEquals(dfas.keySet().toString(), loaded.keySet().toString());
+        dfas.forEach((regex, dfa) -> assertSameLanguage(dfa, loaded.get(regex)));
+    }
+
+    @Test
+    void toDFA() throws IOException {
+        DFA dfa = DFA.parse("(a|b)*c?");
+        MappedDFA mapped = DFAFormat.read(ByteBuffer.wrap(bytes(Collections.singletonMap("x", dfa)))).get("x");
+        assertSameLanguage(dfa, mapped);
+        assertSameLanguage(mapped.toDFA(), mapped);
+    }
+
+    @Test
+    void rewrite() throws IOException {
+        Path file = Files.createTempFile("bundle", ".dfa");
+        file.toFile().deleteOnExit();
+        DFAFormat.write(Collections.singletonMap("ab", DFA.parse("ab")), file);
+        MappedDFA before = DFAFormat.load(file).get("ab");
+        DFAFormat.write(Collections.singletonMap("ab", DFA.parse("abc")), file);
+
+        // the old mapping still reads the old automaton
+        assertSameLanguage(DFA.parse("ab"), before);
+        assertSameLanguage(DFA.parse("abc"), DFAFormat.load(file).get("ab"));
+    }
+
+    @Test
+    void classes() throws IOException {
+        DFA dfa = DFA.parse("[a-z][a-z]*[^a-z]");
+        MappedDFA mapped = DFAFormat.read(ByteBuffer.wrap(bytes(Collections.singletonMap("x", dfa)))).get("x");
+        assertSameLanguage(dfa, mapped);
+        assertEquals(dfa.getAlphabetSize(), mapped.toDFA().getAlphabetSize());
+        for (String input : Arrays.asList("abc1", "z~", "a\uffff")) {
+            int state = mapped.getStart();
+            for (char c : input.toCharArray()) {
+                state = mapped.next(state, c);
+            }
+            assertTrue(mapped.isFinal(state), input);
+        }
+        assertFalse(mapped.isFinal(mapped.next(mapped.getStart(), '1')));
+    }
+
+    @Test
+    void readsVersion1() throws IOException {
+        // ab, columns a and b, state 2 final
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(DFAFormat.MAGIC);
+        out.writeShort(1);
+        out.writeShort(0);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.writeBytes("ab\0\0");
+        for (int header : new int[]{'a', 2, 3, 0, 2}) {
+            out.writeInt(header);
+        }
+        out.writeInt(1 << 2);
+        for (int entry : new int[]{2, 0, 0, 3, 0, 0}) {
+            out.writeShort(entry);
+        }
+        MappedDFA mapped = DFAFormat.read(ByteBuffer.wrap(bytes.toByteArray())).get("ab");
+        assertSameLanguage(DFA.parse("ab"), mapped);
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        byte[] valid = bytes(Collections.singletonMap("ab", DFA.parse("ab")));
+
+        byte[] magic = valid.clone();
+        magic[0] = 'X';
+        assertThrows(IllegalArgumentException.class, () -> DFAFormat.read(ByteBuffer.wrap(magic)));
+
+        byte[] version = valid.clone();
+        version[5] = 9;
+        assertThrows(IllegalArgumentException.class, () -> DFAFormat.read(ByteBuffer.wrap(version)));
+
+        byte[] truncated = Arrays.copyOf(valid, valid.length - 4);
+        assertThrows(IllegalArgumentException.class, () -> DFAFormat.read(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    void rejectsPatternSets() {
+        DFA set = DFA.parseAll(Arrays.asList("ab", "b"));
+        assertThrows(IllegalArgumentException.class, () -> bytes(Collections.singletonMap("set", set)));
+    }
+}
@@ -0,0 +1,108 @@
+package io.github.nhomble.regex.parser;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DFATest {
+
+    @Test
+    void and() {
+        DFA dfa = DFA.parse("ab");
+        assertEquals("" +
+                "start=0\n" +
+                "end={[2]}\n" +
+                "from=0 signal=a to=1\n" +
+                "from=1 signal=b to=2\n", dfa.toString());
+    }
+
+    @Test
+    void notMinimized() {
+        DFA dfa = DFA.parse("ab", false);
+        assertEquals("" +
+                "start=0\n" +
+                "end={[3]}\n" +
+                "from=0 signal=a to=1\n" +
+                "from=0 signal=b to=2\n" +
+                "from=1 signal=a to=2\n" +
+                "from=1 signal=b to=3\n" +
+                "from=2 signal=a to=2\n" +
+                "from=2 signal=b to=2\n" +
+                "from=3 signal=a to=2\n" +
+                "from=3 signal=b to=2\n", dfa.toString());
+    }
+
+    @Test
+    void minimized() {
+        DFA dfa = DFA.parse("(a|b)*(a|b)*");
+        assertEquals(1, dfa.getStateCount());
+        assertTrue(dfa.getConstructedStateCount() > dfa.getStateCount());
+        assertTrue(dfa.isFinal(dfa.getStart()));
+        assertEquals(dfa.getStart(), dfa.next(dfa.getStart(), 'a'));
+        assertEquals(dfa.getStart(), dfa.next(dfa.getStart(), 'b'));
+    }
+
+    @Test
+    void matchesNothing() {
+        // the negated class is empty, so the start state is all that is left
+        DFA dfa = DFA.parse("a[^\u0000-\uffff]b");
+        assertEquals(1, dfa.getStateCount());
+        assertEquals(0, dfa.getStart());
+        assertFalse(dfa.isFinal(dfa.getStart()));
+        assertEquals(DFA.OFF_STATE, dfa.next(dfa.getStart(), 'a'));
+        Utf8DFA utf8 = Utf8DFA.compile(dfa);
+        assertFalse(utf8.isFinal(utf8.getStart()));
+    }
+
+    @Test
+    void bounded() {
+        // the DFA has to remember the last 4 chars
+        String regex = "(a|b)*a(a|b)(a|b)(a|b)";
+        assertFalse(DFA.parse(regex, 8).isPresent());
+        DFA dfa = DFA.parse(regex, 1024).get();
+        assertEquals(DFA.parse(regex).getStateCount(), dfa.getStateCount());
+    }
+
+    @Test
+    void classes() {
+        DFA dfa = DFA.parse("[a-z]x");
+        assertEquals("" +
+                "start=0\n" +
+                "end={[2]}\n" +
+                "from=0 signal=a-w,y-z to=1\n" +
+                "from=0 signal=x to=1\n" +
+                "from=1 signal=x to=2\n", dfa.toString());
+        assertEquals("a-w,y-z", dfa.signalOf('q'));
+        assertEquals(null, dfa.signalOf('0'));
+    }
+
+    @Test
+    void columnsPerRange() {
+        // a column per range rather than per char
+        assertEquals(1, DFA.parse("[a-z]*").getAlphabetSize());
+        assertEquals(1, DFA.parse(".").getAlphabetSize());
+        DFA dfa = DFA.parse("[^,]*");
+        assertEquals(1, dfa.getAlphabetSize());
+        assertTrue(dfa.isFinal(dfa.next(dfa.getStart(), '\uffff')));
+        assertEquals(DFA.OFF_STATE, dfa.next(dfa.getStart(), ','));
+    }
+
+    @Test
+    void equivalenceClasses() {
+        // a and b are on different edges but no state tells them apart
+        DFA dfa = DFA.parse("(a|b)c");
+        assertEquals(2, dfa.getAlphabetSize());
+        assertEquals("a-b", dfa.signalOf('a'));
+        assertEquals(dfa.next(dfa.getStart(), 'a'), dfa.next(dfa.getStart(), 'b'));
+        // kept apart without minimization
+        assertEquals(3, DFA.parse("(a|b)c", false).getAlphabetSize());
+
+        StringBuilder regex = new StringBuilder("(");
+        for (char c = 'a'; c <= 'z'; c++) {
+            regex.append(c).append(c == 'z' ? ")*" : "|");
+        }
+        assertEquals(1, DFA.parse(regex.toString()).getAlphabetSize());
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.nhomble.regex.parser;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.metrics.Instrumentation;
+import io.github.nhomble.regex.metrics.RegexMetrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InstrumentedRegexParserTest {
+
+    private static class RecordingMetrics implements RegexMetrics {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public synchronized void phase(CompilePhase phase, long start) {
+            events.add(phase.name());
+        }
+
+        @Override
+        public synchronized void nfaBuilt(int states) {
+            events.add("nfa " + states);
+        }
+
+        @Override
+        public synchronized void dfaBuilt(int states, int alphabetSize) {
+            events.add("dfa " + states + " " + alphabetSize);
+        }
+
+        @Override
+        public synchronized void compiled(String backend, String regex, long start) {
+            events.add("compiled " + backend + " " + regex);
+        }
+
+        @Override
+        public synchronized void matched(String backend, String regex, int length, long start) {
+            events.add("matched " + backend + " " + regex + " " + length);
+        }
+    }
+
+    @Test
+    void compileAndMatch() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Instrumentation.install(metrics);
+        try {
+            RegexParser parser = new InstrumentedRegexParser(new DFARegexParser(), "dfa");
+            RegexMatcher matcher = parser.parse("ab*");
+            DFA dfa = DFA.parse("ab*");
+            int nfaStates = NFA.parseTree("ab*").getStateCount();
+            metrics.events.clear();
+
+            assertTrue(matcher.matches("abb"));
+            assertFalse(matcher.matches((CharSequence) "b"));
+            assertEquals(Arrays.asList("matched dfa ab* 3", "matched dfa ab* 1"), metrics.events);
+
+            metrics.events.clear();
+            parser.parse("ab*");
+            assertEquals(Arrays.asList("PARSE_TREE", "NFA", "nfa " + nfaStates, "DFA", "MINIMIZE",
+                    "dfa " + dfa.getStateCount() + " " + dfa.getAlphabetSize(), "compiled dfa ab*"), metrics.events);
+        } finally {
+            Instrumentation.reset();
+        }
+    }
+
+    @Test
+    void batch() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        Instrumentation.install(metrics);
+        try {
+            RegexMatcher matcher = new InstrumentedRegexParser(new BitParallelRegexParser(), "bit").parse("(a|b)*c?");
+            BitSet expected = new BitSet();
+            expected.set(0);
+            expected.set(2);
+            assertEquals(expected, matcher.matches(Arrays.asList("aabc", "cc", "ba")));
+            assertEquals(3, metrics.events.stream().filter(event -> event.startsWith("matched bit")).count());
+        } finally {
+            Instrumentation.reset();
+        }
+    }
+
+    @Test
+    void noop() {
+        assertTrue(Instrumentation.get() == RegexMetrics.NOOP);
+        RegexMatcher matcher = new InstrumentedRegexParser(new DFARegexParser(), "dfa").parse("ab");
+        assertTrue(matcher.matches("ab"));
+        assertEquals(0, RegexMetrics.NOOP.now());
+    }
+}
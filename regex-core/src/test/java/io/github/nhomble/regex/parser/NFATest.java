@@ -0,0 +1,72 @@
+package io.github.nhomble.regex.parser;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NFATest {
+
+    @Test
+    void primitives() {
+        NFA n = NFA.parseTree("ab");
+        assertEquals("" +
+                "From=0 to=1 by signal=a\n" +
+                "From=1 to=2 by signal=EPS\n" +
+                "From=2 to=3 by signal=b\n", n.toString());
+    }
+
+    @Test
+    void or() {
+        NFA n = NFA.parseTree("a|b");
+        assertEquals(4, n.getInitialState());
+        assertEquals(5, n.getFinalState());
+        assertEquals("" +
+                "From=0 to=1 by signal=a\n" +
+                "From=1 to=5 by signal=EPS\n" +
+                "From=2 to=3 by signal=b\n" +
+                "From=3 to=5 by signal=EPS\n" +
+                "From=4 to=0 by signal=EPS\n" +
+                "From=4 to=2 by signal=EPS\n", n.toString());
+    }
+
+    @Test
+    void star() {
+        NFA n = NFA.parseTree("a*");
+        assertEquals(2, n.getInitialState());
+        assertEquals(3, n.getFinalState());
+        assertEquals("" +
+                "From=0 to=1 by signal=a\n" +
+                "From=1 to=0 by signal=EPS\n" +
+                "From=1 to=3 by signal=EPS\n" +
+                "From=2 to=0 by signal=EPS\n" +
+                "From=2 to=3 by signal=EPS\n", n.toString());
+    }
+
+    @Test
+    void question() {
+        NFA n = NFA.parseTree("a?");
+        assertEquals("" +
+                "From=0 to=1 by signal=EPS\n" +
+                "From=0 to=1 by signal=a\n", n.toString());
+    }
+
+    @Test
+    void longPattern() {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < 1_000; i++) {
+            regex.append("(a|b)");
+        }
+        NFA n = NFA.parseTree(regex.toString());
+        assertEquals(1_000 * 6, n.getStateCount());
+        assertTrue(n.getSignals().contains("a"));
+    }
+
+    @Test
+    void equivalenceClasses() {
+        // chars leading between the same states share a class, the comma is in none
+        NFA n = NFA.parseTree("[a-z]x|[^,]");
+        assertEquals(ImmutableSet.of("\u0000-+,--`,{-\uffff", "a-w,y-z", "x"), n.getSignals());
+    }
+}
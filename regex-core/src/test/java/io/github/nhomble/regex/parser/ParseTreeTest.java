@@ -0,0 +1,108 @@
+package io.github.nhomble.regex.parser;
+
+import io.github.nhomble.regex.matcher.DFAMatcher;
+import io.github.nhomble.regex.parser.exceptions.MissingSymbolException;
+import io.github.nhomble.regex.parser.exceptions.RegexParseException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import static io.github.nhomble.regex.parser.ParseTree.Type.CONCAT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParseTreeTest {
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "ab,(a).(b)",
+            "a|b,(a)|(b)",
+            "(a|ab)*c?,(((a)|((a).(b)))*).((c)?)",
+            "a(b)c,(a).((b).(c))",
+            "a|b|c,(a)|((b)|(c))",
+            "[a-c]x,([a-c]).(x)",
+            "[cba]|.*,([a-c])|((.)*)",
+            "[a-]?,([-a])?",
+            "[a-cb-d0],[0a-d]"
+    })
+    void implicitConcat(String in, String out) {
+        assertEquals(out, ParseTree.parse(in).toString());
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "'',0",
+            "a|,2",
+            "|a,0",
+            "(),1",
+            "a(|b),2",
+            "ab),2",
+            "*a,0",
+            "a**,2",
+            "a?*,2",
+            "ab+,2",
+            "a b,1",
+            "[z-a],1",
+            "a[],2",
+            "[^],2",
+            "[ab]-,4"
+    })
+    void errorPosition(String in, int position) {
+        RegexParseException e = assertThrows(RegexParseException.class, () -> ParseTree.parse(in));
+        assertEquals(position, e.getPosition());
+        assertTrue(e.getMessage().contains("position=" + position));
+    }
+
+    @Test
+    void unclosed() {
+        MissingSymbolException e = assertThrows(MissingSymbolException.class, () -> ParseTree.parse("a(b(c)"));
+        assertEquals(1, e.getPosition());
+    }
+
+    @Test
+    void unclosedClass() {
+        MissingSymbolException e = assertThrows(MissingSymbolException.class, () -> ParseTree.parse("a[b-c"));
+        assertEquals(1, e.getPosition());
+    }
+
+    @Test
+    void longPattern() {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 100_000; i++) {
+            regex.append(i % 2 == 0 ? "ab*" : "(c|d)");
+            input.append(i % 2 == 0 ? "abb" : "d");
+        }
+        ParseTree tree = ParseTree.parse(regex.toString());
+        assertEquals(CONCAT, tree.getComponent().getType());
+        assertTrue(new DFAMatcher(DFA.parse(tree)).matches(input.toString()));
+    }
+
+    @Nested
+    class TreeParse {
+        @Test
+        void simpleConcat() {
+            ParseTree tree = ParseTree.parse("abc");
+            Assertions.assertEquals("a", tree.getComponent().getLeft().getValue());
+            Assertions.assertEquals("b", tree.getComponent().getRight().getLeft().getValue());
+            Assertions.assertEquals("c", tree.getComponent().getRight().getRight().getValue());
+        }
+
+        @Test
+        void simpleOr() {
+            ParseTree tree = ParseTree.parse("a|bc");
+            Assertions.assertEquals("a", tree.getComponent().getLeft().getValue());
+            Assertions.assertEquals("b", tree.getComponent().getRight().getLeft().getValue());
+            Assertions.assertEquals("c", tree.getComponent().getRight().getRight().getValue());
+        }
+
+        @Test
+        void uat() {
+            ParseTree tree = ParseTree.parse("(a|b)*abb");
+            Assertions.assertEquals("(((a)|(b))*).((a).((b).(b)))", tree.toString());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package io.github.nhomble.regex.parser;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PlanningRegexParserTest {
+
+    private PlanningRegexParser parser;
+
+    @BeforeEach
+    void setup() {
+        parser = new PlanningRegexParser();
+    }
+
+    private static String repeat(String s, int times) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(s);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    void literal() {
+        PlanningRegexParser.Plan plan = parser.explain("abc");
+        assertEquals(PlanningRegexParser.Backend.LITERAL, plan.getBackend());
+        RegexMatcher matcher = plan.getMatcher();
+        assertTrue(matcher.matches("abc"));
+        assertTrue(matcher.matches(new StringBuilder("abc")));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("abcd"));
+    }
+
+    @Test
+    void small() {
+        PlanningRegexParser.Plan plan = parser.explain("(a|b)*c?");
+        assertEquals(PlanningRegexParser.Backend.BIT_PARALLEL, plan.getBackend());
+        RegexMatcher matcher = parser.parse("(a|b)*c?");
+        assertTrue(matcher.matches("aabbbbc"));
+        assertFalse(matcher.matches("cc"));
+    }
+
+    @Test
+    void moderate() {
+        String regex = "a*" + repeat("b", 70);
+        PlanningRegexParser.Plan plan = parser.explain(regex);
+        assertEquals(PlanningRegexParser.Backend.DFA, plan.getBackend());
+        assertTrue(plan.getMatcher().matches("aaa" + repeat("b", 70)));
+        assertFalse(plan.getMatcher().matches("aaa" + repeat("b", 69)));
+    }
+
+    @Test
+    void explodes() {
+        // the DFA has to remember the last 31 chars
+        String regex = "(a|b)*a" + repeat("(a|b)", 31);
+        PlanningRegexParser.Plan plan = parser.explain(regex);
+        assertEquals(PlanningRegexParser.Backend.LAZY_DFA, plan.getBackend());
+        assertTrue(plan.toString().contains("gave up past " + PlanningRegexParser.DEFAULT_MAX_DFA_STATES));
+        assertTrue(plan.getMatcher().matches("bba" + repeat("b", 31)));
+        assertFalse(plan.getMatcher().matches("bbb" + repeat("b", 31)));
+    }
+
+    @Test
+    void nullInput() {
+        // every backend rejects null the same way, whichever one the planner picks
+        for (String regex : new String[]{"abc", "(a|b)*c?", "a*" + repeat("b", 70), "(a|b)*a" + repeat("(a|b)", 31)}) {
+            RegexMatcher matcher = parser.parse(regex);
+            assertThrows(NullPointerException.class, () -> matcher.matches((String) null), regex);
+            assertThrows(NullPointerException.class, () -> matcher.matches((CharSequence) null), regex);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.nhomble.regex.metrics;
+
+import com.google.common.base.Preconditions;
+
+import java.time.Duration;
+
+/**
+ * Emits a {@link SlowCompileEvent} or {@link SlowMatchEvent} to Flight Recorder for every compile or match that takes at
+ * least the given threshold. Nothing is allocated unless the event is both slow and enabled in the running recording.
+ */
+public class JfrRegexMetrics implements RegexMetrics {
+
+    public static final Duration DEFAULT_SLOW_COMPILE = Duration.ofMillis(10);
+    public static final Duration DEFAULT_SLOW_MATCH = Duration.ofMillis(1);
+
+    private final long slowCompileNanos;
+    private final long slowMatchNanos;
+
+    public JfrRegexMetrics() {
+        this(DEFAULT_SLOW_COMPILE, DEFAULT_SLOW_MATCH);
+    }
+
+    public JfrRegexMetrics(Duration slowCompile, Duration slowMatch) {
+        Preconditions.checkArgument(!slowCompile.isNegative() && !slowMatch.isNegative());
+        this.slowCompileNanos = slowCompile.toNanos();
+        this.slowMatchNanos = slowMatch.toNanos();
+    }
+
+    @Override
+    public void compiled(String backend, String regex, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (elapsed >= slowCompileNanos) {
+            SlowCompileEvent event = new SlowCompileEvent();
+            if (event.isEnabled()) {
+                event.backend = backend;
+                event.regex = regex;
+                event.compileTime = elapsed;
+                event.commit();
+            }
+        }
+    }
+
+    @Override
+    public void matched(String backend, String regex, int length, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (elapsed >= slowMatchNanos) {
+            SlowMatchEvent event = new SlowMatchEvent();
+            if (event.isEnabled()) {
+                event.backend = backend;
+                event.regex = regex;
+                event.inputLength = length;
+                event.matchTime = elapsed;
+                event.commit();
+            }
+        }
+    }
+}
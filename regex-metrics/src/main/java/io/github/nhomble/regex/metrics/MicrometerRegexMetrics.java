@@ -0,0 +1,84 @@
+package io.github.nhomble.regex.metrics;
+
+import com.google.common.base.Preconditions;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Publishes to a Micrometer {@link MeterRegistry}:
+ * <ul>
+ *     <li>{@code regex.compile.phase} timer per {@link RegexMetrics.CompilePhase}, tagged {@code phase}</li>
+ *     <li>{@code regex.compile} timer per backend, tagged {@code backend}</li>
+ *     <li>{@code regex.match} timer with a percentile histogram per backend, tagged {@code backend}</li>
+ *     <li>{@code regex.nfa.states}, {@code regex.dfa.states} and {@code regex.dfa.alphabet.size} gauges of the last
+ *     automata built</li>
+ * </ul>
+ */
+public class MicrometerRegexMetrics implements RegexMetrics {
+
+    private final MeterRegistry registry;
+    private final Map<CompilePhase, Timer> phases = new EnumMap<>(CompilePhase.class);
+    private final ConcurrentMap<String, Timer> compiles = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Timer> matches = new ConcurrentHashMap<>();
+    private final AtomicInteger nfaStates;
+    private final AtomicInteger dfaStates;
+    private final AtomicInteger alphabetSize;
+
+    public MicrometerRegexMetrics(MeterRegistry registry) {
+        Preconditions.checkNotNull(registry);
+        this.registry = registry;
+        for (CompilePhase phase : CompilePhase.values()) {
+            phases.put(phase, Timer.builder("regex.compile.phase")
+                    .description("time spent in one phase of compiling a regex")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .register(registry));
+        }
+        this.nfaStates = registry.gauge("regex.nfa.states", Tags.empty(), new AtomicInteger());
+        this.dfaStates = registry.gauge("regex.dfa.states", Tags.empty(), new AtomicInteger());
+        this.alphabetSize = registry.gauge("regex.dfa.alphabet.size", Tags.empty(), new AtomicInteger());
+    }
+
+    @Override
+    public void phase(CompilePhase phase, long start) {
+        phases.get(phase).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void nfaBuilt(int states) {
+        nfaStates.set(states);
+    }
+
+    @Override
+    public void dfaBuilt(int states, int alphabetSize) {
+        this.dfaStates.set(states);
+        this.alphabetSize.set(alphabetSize);
+    }
+
+    @Override
+    public void compiled(String backend, String regex, long start) {
+        compiles.computeIfAbsent(backend, b -> Timer.builder("regex.compile")
+                .description("time to compile a regex into a matcher")
+                .tag("backend", b)
+                .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void matched(String backend, String regex, int length, long start) {
+        matches.computeIfAbsent(backend, b -> Timer.builder("regex.match")
+                .description("time to match one input")
+                .tag("backend", b)
+                .publishPercentileHistogram()
+                .register(registry))
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
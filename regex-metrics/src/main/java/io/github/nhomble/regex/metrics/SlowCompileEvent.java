@@ -0,0 +1,27 @@
+package io.github.nhomble.regex.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name(SlowCompileEvent.NAME)
+@Label("Slow Regex Compile")
+@Category("Regex")
+@Description("A regex took longer than the configured threshold to compile")
+public class SlowCompileEvent extends Event {
+
+    public static final String NAME = "io.github.nhomble.regex.SlowCompile";
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Regex")
+    String regex;
+
+    @Label("Compile Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long compileTime;
+}
@@ -0,0 +1,30 @@
+package io.github.nhomble.regex.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+@Name(SlowMatchEvent.NAME)
+@Label("Slow Regex Match")
+@Category("Regex")
+@Description("A match took longer than the configured threshold")
+public class SlowMatchEvent extends Event {
+
+    public static final String NAME = "io.github.nhomble.regex.SlowMatch";
+
+    @Label("Backend")
+    String backend;
+
+    @Label("Regex")
+    String regex;
+
+    @Label("Input Length")
+    int inputLength;
+
+    @Label("Match Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long matchTime;
+}
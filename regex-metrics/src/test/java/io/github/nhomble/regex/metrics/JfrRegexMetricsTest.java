@@ -0,0 +1,65 @@
+package io.github.nhomble.regex.metrics;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.parser.DFARegexParser;
+import io.github.nhomble.regex.parser.InstrumentedRegexParser;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JfrRegexMetricsTest {
+
+    private static List<RecordedEvent> record(Duration slowCompile, Duration slowMatch) throws IOException {
+        Path file = Files.createTempFile("regex", ".jfr");
+        file.toFile().deleteOnExit();
+        Instrumentation.install(new JfrRegexMetrics(slowCompile, slowMatch));
+        try (Recording recording = new Recording()) {
+            recording.enable(SlowCompileEvent.class);
+            recording.enable(SlowMatchEvent.class);
+            recording.start();
+            RegexMatcher matcher = new InstrumentedRegexParser(new DFARegexParser(), "dfa").parse("ab*");
+            assertTrue(matcher.matches("abbb"));
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            Instrumentation.reset();
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().startsWith("io.github.nhomble.regex"))
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    void slow() throws IOException {
+        List<RecordedEvent> events = record(Duration.ZERO, Duration.ZERO);
+        assertEquals(2, events.size());
+
+        RecordedEvent compile = events.stream()
+                .filter(event -> event.getEventType().getName().equals(SlowCompileEvent.NAME))
+                .findFirst().get();
+        assertEquals("dfa", compile.getString("backend"));
+        assertEquals("ab*", compile.getString("regex"));
+        assertTrue(compile.getDuration("compileTime").toNanos() > 0);
+
+        RecordedEvent match = events.stream()
+                .filter(event -> event.getEventType().getName().equals(SlowMatchEvent.NAME))
+                .findFirst().get();
+        assertEquals(4, match.getInt("inputLength"));
+    }
+
+    @Test
+    void fast() throws IOException {
+        assertTrue(record(Duration.ofHours(1), Duration.ofHours(1)).isEmpty());
+    }
+}
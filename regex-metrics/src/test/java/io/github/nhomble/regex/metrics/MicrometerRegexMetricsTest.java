@@ -0,0 +1,38 @@
+package io.github.nhomble.regex.metrics;
+
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.DFARegexParser;
+import io.github.nhomble.regex.parser.InstrumentedRegexParser;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MicrometerRegexMetricsTest {
+
+    @Test
+    void compileAndMatch() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        Instrumentation.install(new MicrometerRegexMetrics(registry));
+        try {
+            RegexMatcher matcher = new InstrumentedRegexParser(new DFARegexParser(), "dfa").parse("(a|b)*c?");
+            assertTrue(matcher.matches("abc"));
+            assertTrue(matcher.matches("ab"));
+
+            for (String phase : new String[]{"parse_tree", "nfa", "dfa", "minimize"}) {
+                assertEquals(1, registry.get("regex.compile.phase").tag("phase", phase).timer().count(), phase);
+            }
+            assertEquals(1, registry.get("regex.compile").tag("backend", "dfa").timer().count());
+            assertEquals(2, registry.get("regex.match").tag("backend", "dfa").timer().count());
+
+            DFA dfa = DFA.parse("(a|b)*c?");
+            assertEquals(dfa.getStateCount(), registry.get("regex.dfa.states").gauge().value());
+            assertEquals(dfa.getAlphabetSize(), registry.get("regex.dfa.alphabet.size").gauge().value());
+            assertTrue(registry.get("regex.nfa.states").gauge().value() > 0);
+        } finally {
+            Instrumentation.reset();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.nhomble.regex.commands;
+
+import io.github.nhomble.regex.matcher.DFAMatcher;
+import io.github.nhomble.regex.matcher.LazyDFAMatcher;
+import io.github.nhomble.regex.matcher.MappedLineScanner;
+import io.github.nhomble.regex.matcher.RegexMatcher;
+import io.github.nhomble.regex.parser.DFA;
+import io.github.nhomble.regex.parser.PlanningRegexParser;
+import io.github.nhomble.regex.parser.RegexParser;
+import org.springframework.shell.Availability;
+import org.springframework.shell.standard.ShellCommandGroup;
+import org.springframework.shell.standard.ShellComponent;
+import org.springframework.shell.standard.ShellMethod;
+import org.springframework.shell.standard.ShellMethodAvailability;
+import org.springframework.shell.standard.ShellOption;
+
+import java.nio.file.Paths;
+import java.util.Optional;
+
+@ShellComponent
+@ShellCommandGroup
+public class RegexCommands {
+
+    private final RegexParser parser;
+    private RegexMatcher matcher;
+    // null if the regex's DFA is over the state budget and the matcher can't scan lines without a String
+    private MappedLineScanner scanner;
+
+    public RegexCommands(RegexParser parser) {
+        this.parser = parser;
+    }
+
+    @ShellMethod("parse provided regex")
+    public void regex(String regex) {
+        matcher = parser.parse(regex);
+        scanner = scanner(regex, matcher);
+    }
+
+    /**
+     * Lines are scanned as bytes with the DFA table if there is one no bigger than the planner would have built, and
+     * otherwise decoded for the planned matcher, which walks them without a String per line
+     */
+    private MappedLineScanner scanner(String regex, RegexMatcher matcher) {
+        if (matcher instanceof DFAMatcher) {
+            return new MappedLineScanner(((DFAMatcher) matcher).getDfa());
+        }
+        if (matcher instanceof LazyDFAMatcher) {
+            // the planner already gave up on subset construction
+            return new MappedLineScanner(matcher);
+        }
+        Optional<DFA> dfa = DFA.parse(regex, maxDfaStates());
+        if (dfa.isPresent()) {
+            return new MappedLineScanner(dfa.get());
+        }
+        // other parsers' matchers may need each line as a String
+        return parser instanceof PlanningRegexParser ? new MappedLineScanner(matcher) : null;
+    }
+
+    private int maxDfaStates() {
+        return parser instanceof PlanningRegexParser
+                ? ((PlanningRegexParser) parser).getMaxDfaStates()
+                : PlanningRegexParser.DEFAULT_MAX_DFA_STATES;
+    }
+
+    @ShellMethod("show which backend provided regex would be matched with and why")
+    public void explain(String regex) {
+        if (!(parser instanceof PlanningRegexParser)) {
+            System.out.println(parser.getClass().getSimpleName() + " for every regex");
+            return;
+        }
+        PlanningRegexParser.Plan plan = ((PlanningRegexParser) parser).explain(regex);
+        System.out.println(plan.getBackend());
+        plan.getReasons().forEach(reason -> System.out.println("  " + reason));
+    }
+
+    @ShellCommandGroup
+    @ShellComponent
+    public class RegexMatchCommands {
+
+        @ShellMethodAvailability
+        public Availability hasParser() {
+            return matcher != null ? Availability.available() : Availability.unavailable("provide a regex!");
+        }
+
+        @ShellMethod("check if provided string matches previously provided regex")
+        public void check(String s) {
+            boolean result = matcher.matches(s);
+            if (result) {
+                System.out.println("MATCHES");
+            } else {
+                System.out.println("DOES NOT MATCH");
+            }
+        }
+
+        @ShellMethod("print the numbers of the lines in a file that match previously provided regex")
+        public void grep(String file, @ShellOption(help = "only print how many lines match") boolean count) {
+            if (scanner == null) {
+                System.out.println("more than " + maxDfaStates() + " DFA states, only the planning parser can grep this");
+            } else if (count) {
+                System.out.println(scanner.count(Paths.get(file)));
+            } else {
+                for (long line : scanner.matchingLines(Paths.get(file))) {
+                    System.out.println(line);
+                }
+            }
+        }
+    }
+
+}
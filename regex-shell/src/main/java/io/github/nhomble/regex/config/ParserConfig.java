@@ -0,0 +1,22 @@
+package io.github.nhomble.regex.config;
+
+import io.github.nhomble.regex.parser.PlanningRegexParser;
+import io.github.nhomble.regex.parser.RegexParser;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Let the planner pick a backend per regex unless {@code regex.parser} asks for the state machine for everything
+ */
+@Configuration
+public class ParserConfig {
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "regex.parser", havingValue = "planning", matchIfMissing = true)
+    public RegexParser planningRegexParser() {
+        return new PlanningRegexParser();
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.nhomble.regex.matcher;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineFactory;
+import org.springframework.statemachine.listener.StateMachineListenerAdapter;
+import org.springframework.statemachine.state.State;
+import org.springframework.statemachine.support.DefaultStateMachineContext;
+
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Matches by sending every char of the input as an event to a Spring {@link StateMachine}. A machine can only run one
+ * input at a time, so matching borrows one from a bounded pool, blocking while all of them are busy. Pooled machines are
+ * started once and reset to their initial state before every input rather than stopped and started again.
+ */
+@Slf4j
+public class SpringStateMachineMatcher<S> implements RegexMatcher {
+
+    public static final String FINAL_STATES = "_regexFinalStates";
+
+    private final StateMachineFactory<S, String> factory;
+    private final Set<S> finalStates;
+    private final Function<Character, String> events;
+    private final boolean logTransitions;
+    private final long estimatedSize;
+    private final int poolSize;
+    private final BlockingQueue<StateMachine<S, String>> idle;
+    private final AtomicInteger created = new AtomicInteger();
+
+    /**
+     * Wrap a single machine whose final states are kept in its extended state under {@link #FINAL_STATES}. Callers
+     * take turns on it.
+     *
+     * @param fsm
+     */
+    @SuppressWarnings("unchecked")
+    public SpringStateMachineMatcher(StateMachine<S, String> fsm) {
+        Preconditions.checkArgument(fsm.getExtendedState().getVariables().containsKey(FINAL_STATES));
+        this.factory = null;
+        this.finalStates = ImmutableSet.copyOf((Set<S>) fsm.getExtendedState().get(FINAL_STATES, Set.class));
+        this.events = String::valueOf;
+        this.logTransitions = false;
+        this.estimatedSize = 1;
+        this.poolSize = 1;
+        this.idle = new ArrayBlockingQueue<>(1);
+        this.created.set(1);
+        fsm.start();
+        idle.add(fsm);
+    }
+
+    /**
+     * @param factory        template every pooled machine is built from
+     * @param finalStates
+     * @param events         event sent for a char, such as the range holding it, or null if no transition reads it
+     * @param poolSize       most machines that are ever built, and so inputs matched at once
+     * @param logTransitions log every transition and every rejected event of every machine
+     * @param estimatedSize
+     */
+    public SpringStateMachineMatcher(StateMachineFactory<S, String> factory, Set<S> finalStates,
+                                     Function<Character, String> events, int poolSize, boolean logTransitions,
+                                     long estimatedSize) {
+        Preconditions.checkNotNull(factory);
+        Preconditions.checkNotNull(events);
+        Preconditions.checkArgument(poolSize > 0);
+        this.factory = factory;
+        this.finalStates = ImmutableSet.copyOf(finalStates);
+        this.events = events;
+        this.logTransitions = logTransitions;
+        this.estimatedSize = estimatedSize;
+        this.poolSize = poolSize;
+        this.idle = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    @Override
+    public long estimatedSize() {
+        return estimatedSize;
+    }
+
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    /**
+     * @return machines built so far, never more than {@link #getPoolSize()}
+     */
+    public int getCreatedCount() {
+        return created.get();
+    }
+
+    @Override
+    public boolean matches(String input) {
+        Preconditions.checkNotNull(input);
+        StateMachine<S, String> fsm = borrow();
+        try {
+            reset(fsm);
+            for (int i = 0; i < input.length(); i++) {
+                String event = events.apply(input.charAt(i));
+                if (event == null || !fsm.sendEvent(event)) {
+                    return false;
+                }
+            }
+            return finalStates.contains(fsm.getState().getId());
+        } finally {
+            idle.add(fsm);
+        }
+    }
+
+    private StateMachine<S, String> borrow() {
+        try {
+            while (true) {
+                StateMachine<S, String> fsm = idle.poll();
+                if (fsm != null) {
+                    return fsm;
+                }
+                if (reserve()) {
+                    try {
+                        return newMachine();
+                    } catch (RuntimeException | Error e) {
+                        created.decrementAndGet();
+                        throw e;
+                    }
+                }
+                // wake up now and then in case a machine failed to build and its slot is free again
+                fsm = idle.poll(100, TimeUnit.MILLISECONDS);
+                if (fsm != null) {
+                    return fsm;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted waiting for a state machine", e);
+        }
+    }
+
+    /**
+     * @return true if there was room in the pool for one more machine, which is now counted
+     */
+    private boolean reserve() {
+        if (factory == null) {
+            return false;
+        }
+        for (int n = created.get(); n < poolSize; n = created.get()) {
+            if (created.compareAndSet(n, n + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private StateMachine<S, String> newMachine() {
+        StateMachine<S, String> fsm = factory.getStateMachine();
+        if (logTransitions) {
+            fsm.addStateListener(new LoggingSMListener<>());
+        }
+        fsm.start();
+        return fsm;
+    }
+
+    private void reset(StateMachine<S, String> fsm) {
+        S initial = fsm.getInitialState().getId();
+        if (initial.equals(fsm.getState().getId())) {
+            return;
+        }
+        // no extended state in the context so that the machine keeps its own
+        fsm.getStateMachineAccessor().doWithAllRegions(access ->
+                access.resetStateMachine(new DefaultStateMachineContext<>(initial, null, null, null)));
+    }
+
+    static class LoggingSMListener<S> extends StateMachineListenerAdapter<S, String> {
+        @Override
+        public void stateChanged(State<S, String> from, State<S, String> to) {
+            log.info("State transition has happened! to={}", to.getId());
+        }
+
+        @Override
+        public void eventNotAccepted(Message<String> event) {
+            log.info("Event was not accepted! event={}", event.getPayload());
+        }
+    }
+}
@@ -2,10 +2,13 @@ package io.github.nhomble.regex.parser;
 
 import io.github.nhomble.regex.matcher.RegexMatcher;
 import io.github.nhomble.regex.matcher.SpringStateMachineMatcher;
+import com.google.common.base.Preconditions;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.statemachine.StateMachine;
 import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
 import org.springframework.statemachine.config.builders.StateMachineTransitionConfigurer;
-import org.springframework.statemachine.config.configurers.StateConfigurer;
 import org.springframework.stereotype.Component;
 
 import java.util.*;
@@ -13,6 +16,25 @@ import java.util.*;
 @Component
 public class SpringStateMachineRegexParser implements RegexParser {
 
+    private final int poolSize;
+    private final boolean logTransitions;
+
+    public SpringStateMachineRegexParser() {
+        this(0, false);
+    }
+
+    /**
+     * @param poolSize       most state machines every matcher builds, or 0 for one per processor
+     * @param logTransitions log every transition of every machine, which is only for debugging
+     */
+    @Autowired
+    public SpringStateMachineRegexParser(@Value("${regex.statemachine.pool-size:0}") int poolSize,
+                                         @Value("${regex.statemachine.log-transitions:false}") boolean logTransitions) {
+        Preconditions.checkArgument(poolSize >= 0);
+        this.poolSize = poolSize == 0 ? Runtime.getRuntime().availableProcessors() : poolSize;
+        this.logTransitions = logTransitions;
+    }
+
     private String prettyState(int i) {
         return "S" + i;
     }
@@ -25,7 +47,6 @@ public class SpringStateMachineRegexParser implements RegexParser {
      */
     public RegexMatcher parse(String regex) {
         DFA dfa = DFA.parse(regex);
-        StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
         int initial = dfa.getStart();
         Set<String> finalStates = new HashSet<>();
         Set<String> states = new HashSet<>();
@@ -44,6 +65,13 @@ public class SpringStateMachineRegexParser implements RegexParser {
             transitions.put(prettyState(from), t);
         });
 
+        return new SpringStateMachineMatcher<>(factory(initial, states, transitions), finalStates, dfa::signalOf,
+                poolSize, logTransitions, (long) dfa.getStateCount() * dfa.getAlphabetSize());
+    }
+
+    private StateMachineFactory<String, String> factory(int initial, Set<String> states,
+                                                        Map<String, Map<String, String>> transitions) {
+        StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
         try {
             builder.configureConfiguration().withConfiguration()
                     .autoStartup(false)
@@ -61,12 +89,38 @@ public class SpringStateMachineRegexParser implements RegexParser {
                 }
             }));
 
-            StateMachine<String, String> machine = builder.build();
-            machine.getExtendedState().getVariables().put(SpringStateMachineMatcher.FINAL_STATES, finalStates);
-            return new SpringStateMachineMatcher<>(machine);
+            return new BuilderFactory<>(builder);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Every machine is built afresh from the same configured builder, which spring-statemachine 2.x allows but has no
+     * factory for
+     */
+    private static class BuilderFactory<S, E> implements StateMachineFactory<S, E> {
+
+        private final StateMachineBuilder.Builder<S, E> builder;
+
+        BuilderFactory(StateMachineBuilder.Builder<S, E> builder) {
+            this.builder = builder;
+        }
+
+        @Override
+        public synchronized StateMachine<S, E> getStateMachine() {
+            return builder.build();
+        }
+
+        @Override
+        public StateMachine<S, E> getStateMachine(String machineId) {
+            return getStateMachine();
+        }
+
+        @Override
+        public StateMachine<S, E> getStateMachine(UUID uuid) {
+            return getStateMachine();
+        }
+    }
+
 }
@@ -0,0 +1,163 @@
+package io.github.nhomble.regex.matcher;
+
+import io.github.nhomble.regex.parser.SpringStateMachineRegexParser;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.springframework.statemachine.StateMachine;
+import org.springframework.statemachine.config.StateMachineBuilder;
+import org.springframework.statemachine.config.StateMachineFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SpringStateMachineMatcherTest {
+
+    private SpringStateMachineRegexParser parser;
+
+    @BeforeEach
+    void setup() {
+        parser = new SpringStateMachineRegexParser();
+    }
+
+    @Test
+    void and() {
+        RegexMatcher machineMatcher = parser.parse("ab");
+        assertTrue(machineMatcher.matches("ab"));
+        assertFalse(machineMatcher.matches("a"));
+        assertFalse(machineMatcher.matches("ba"));
+    }
+
+    @Test
+    void star() {
+        RegexMatcher matcher = parser.parse("ab*");
+        assertTrue(matcher.matches("ab"));
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("abb"));
+        assertFalse(matcher.matches("ac"));
+    }
+
+    @Test
+    void question() {
+        RegexMatcher matcher = parser.parse("ab?");
+        assertTrue(matcher.matches("a"));
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("abb"));
+    }
+
+    @Test
+    void or(){
+        RegexMatcher matcher = parser.parse("A|B");
+        assertTrue(matcher.matches("A"));
+        assertTrue(matcher.matches("B"));
+        assertFalse(matcher.matches("AB"));
+    }
+
+    @Test
+    void uat(){
+        RegexMatcher matcher = parser.parse("(a|b)*c?");
+        assertTrue(matcher.matches("aaaaaa"));
+        assertTrue(matcher.matches("bbbbbb"));
+        assertTrue(matcher.matches("aabbbbc"));
+        assertFalse(matcher.matches("cc"));
+    }
+
+    @Test
+    void batch() {
+        RegexMatcher matcher = parser.parse("(a|b)*c?");
+        BitSet expected = new BitSet();
+        expected.set(0);
+        expected.set(2);
+        assertEquals(expected, matcher.matches(Arrays.asList("aabc", "cc", "ba")));
+    }
+
+    @Test
+    void reuse() {
+        SpringStateMachineMatcher<?> matcher = (SpringStateMachineMatcher<?>) new SpringStateMachineRegexParser(1, false)
+                .parse("ab*");
+        // a rejected input leaves the machine part way through, the next one has to start over
+        assertFalse(matcher.matches("ac"));
+        assertTrue(matcher.matches("abb"));
+        assertFalse(matcher.matches("b"));
+        assertTrue(matcher.matches("a"));
+        assertEquals(1, matcher.getCreatedCount());
+    }
+
+    @Test
+    void pooled() {
+        SpringStateMachineMatcher<?> matcher = (SpringStateMachineMatcher<?>) new SpringStateMachineRegexParser(2, false)
+                .parse("(a|b)*c?");
+        List<String> inputs = new ArrayList<>();
+        BitSet expected = new BitSet();
+        for (int i = 0; i < 2000; i++) {
+            inputs.add(i % 3 == 0 ? "abbac" : "cab");
+            if (i % 3 == 0) {
+                expected.set(i);
+            }
+        }
+        assertEquals(expected, matcher.matches(inputs));
+        int created = matcher.getCreatedCount();
+        assertTrue(created >= 1 && created <= matcher.getPoolSize());
+        // borrowing from a full pool doesn't count as creating
+        assertTrue(matcher.matches("ab"));
+        assertEquals(created, matcher.getCreatedCount());
+    }
+
+    @Test
+    void failedBuildFreesItsSlot() {
+        AtomicBoolean fail = new AtomicBoolean(true);
+        StateMachineFactory<String, String> factory = new StateMachineFactory<String, String>() {
+            @Override
+            public StateMachine<String, String> getStateMachine() {
+                if (fail.getAndSet(false)) {
+                    throw new IllegalStateException("broken");
+                }
+                StateMachineBuilder.Builder<String, String> builder = StateMachineBuilder.builder();
+                try {
+                    builder.configureConfiguration().withConfiguration().autoStartup(false).beanFactory(null);
+                    builder.configureStates().withStates().initial("S0").states(new HashSet<>(Arrays.asList("S0", "S1")));
+                    builder.configureTransitions().withExternal().source("S0").target("S1").event("a");
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+                return builder.build();
+            }
+
+            @Override
+            public StateMachine<String, String> getStateMachine(String machineId) {
+                return getStateMachine();
+            }
+
+            @Override
+            public StateMachine<String, String> getStateMachine(UUID uuid) {
+                return getStateMachine();
+            }
+        };
+        SpringStateMachineMatcher<String> matcher = new SpringStateMachineMatcher<>(factory,
+                Collections.singleton("S1"), String::valueOf, 1, false, 2);
+
+        assertThrows(IllegalStateException.class, () -> matcher.matches("a"));
+        assertEquals(0, matcher.getCreatedCount());
+        assertTrue(matcher.matches("a"));
+        assertFalse(matcher.matches("b"));
+        assertEquals(1, matcher.getCreatedCount());
+    }
+
+    @Test
+    void logging() {
+        RegexMatcher matcher = new SpringStateMachineRegexParser(1, true).parse("ab");
+        assertTrue(matcher.matches("ab"));
+        assertFalse(matcher.matches("b"));
+    }
+}
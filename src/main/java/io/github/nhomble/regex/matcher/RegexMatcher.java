@@ -1,6 +0,0 @@
-package io.github.nhomble.regex.matcher;
-
-public interface RegexMatcher {
-
-    boolean matches(String input);
-}